@@ -0,0 +1,45 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a SwiftGui with {@link SwiftGui#addNewPages} and disposing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddNewPagesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int numberOfPages;
+
+    @Setup
+    public void setUp() {
+        MockServer.get();
+    }
+
+    @Benchmark
+    public Page[] addNewPages() {
+        SwiftGui gui = new SwiftGui();
+        Page[] pages = gui.addNewPages(this.numberOfPages, 6, "Page");
+        gui.dispose();
+        return pages;
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.PageContent;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares filling a catalog page by page on the server thread with building it with a
+ * {@link io.github.ayushchivate.swiftgui.BulkPageBuilder}, which fills the pages in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkBuildBenchmark {
+
+    @Param({"100", "1000"})
+    public int numberOfPages;
+
+    private ServerMock server;
+
+    @Setup
+    public void setUp() {
+        this.server = MockServer.get();
+    }
+
+    @Benchmark
+    public Page[] pageByPage() {
+        SwiftGui gui = new SwiftGui();
+        Page[] pages = gui.addNewPages(this.numberOfPages, 6, "Catalog");
+        for (int i = 0; i < pages.length; i++) {
+            for (int index = 0; index < 45; index++) {
+                pages[i].setItem(index, product(i, index));
+            }
+        }
+        gui.dispose();
+        return pages;
+    }
+
+    @Benchmark
+    public Page[] bulkBuilder() {
+        SwiftGui gui = new SwiftGui();
+        CompletableFuture<Page[]> built = gui.bulkBuilder(this.numberOfPages, 6)
+                .names(i -> "Catalog")
+                .content(BulkBuildBenchmark::fill)
+                .addAsync();
+
+        /* the pages are put in the SwiftGui by a task on the server thread */
+        while (!built.isDone()) {
+            this.server.getScheduler().performOneTick();
+        }
+        gui.dispose();
+        return built.join();
+    }
+
+    private static void fill(PageContent content, int page) {
+        for (int index = 0; index < 45; index++) {
+            content.setItem(index, product(page, index));
+        }
+    }
+
+    /**
+     * Makes the item of a product, standing in for the work of turning a catalog entry into an item.
+     */
+    private static ItemStack product(int page, int index) {
+        return new ItemStack(Material.STONE, 1 + (page * 45 + index) % 64);
+    }
+}
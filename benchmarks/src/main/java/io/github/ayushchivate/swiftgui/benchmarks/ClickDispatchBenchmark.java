@@ -0,0 +1,115 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import io.github.ayushchivate.swiftgui.CustomButton;
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a click on a button as the number of SwiftGuis and buttons grows.
+ * The click goes through the plugin manager, so it includes the cost of Bukkit calling the listeners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickDispatchBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int numberOfGuis;
+
+    @Param({"1", "9", "45"})
+    public int buttonsPerPage;
+
+    private ServerMock server;
+
+    private SwiftGui[] guis;
+
+    /**
+     * A click on every button of the opened page, reused so the events are not part of the measurement.
+     */
+    private InventoryClickEvent[] clicks;
+
+    private int nextClick;
+
+    @Setup
+    public void setUp() {
+        this.server = MockServer.get();
+        PlayerMock player = this.server.addPlayer();
+
+        this.guis = new SwiftGui[this.numberOfGuis];
+        for (int i = 0; i < this.numberOfGuis; i++) {
+            SwiftGui gui = new SwiftGui();
+            Page page = gui.addNewPage(6, "Gui " + i);
+            for (int index = 0; index < this.buttonsPerPage; index++) {
+                page.addCustomButton(new CountingButton(index, gui));
+            }
+            this.guis[i] = gui;
+        }
+
+        /* the clicks go to the last SwiftGui; one listener serves every SwiftGui, so the others should not add cost */
+        this.guis[this.numberOfGuis - 1].open(player);
+        InventoryView view = player.getOpenInventory();
+        this.clicks = new InventoryClickEvent[this.buttonsPerPage];
+        for (int index = 0; index < this.buttonsPerPage; index++) {
+            this.clicks[index] = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, index,
+                    ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (SwiftGui gui : this.guis) {
+            gui.dispose();
+        }
+    }
+
+    @Benchmark
+    public int click() {
+        InventoryClickEvent click = this.clicks[this.nextClick];
+        this.nextClick = (this.nextClick + 1) % this.clicks.length;
+        click.setCancelled(false);
+        this.server.getPluginManager().callEvent(click);
+        return CountingButton.clicks;
+    }
+
+    /**
+     * A button that only counts its clicks.
+     */
+    static final class CountingButton extends CustomButton {
+
+        private static int clicks;
+
+        CountingButton(int index, SwiftGui swiftGui) {
+            super(index, Material.STONE, swiftGui);
+        }
+
+        @Override
+        public void onClick(InventoryClickEvent event) {
+            clicks++;
+        }
+    }
+}
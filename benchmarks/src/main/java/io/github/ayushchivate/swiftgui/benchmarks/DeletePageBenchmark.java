@@ -0,0 +1,54 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures deleting a page from the middle of a large SwiftGui.
+ * A page is put back in its place every time, so the SwiftGui keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeletePageBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int numberOfPages;
+
+    private SwiftGui gui;
+
+    @Setup
+    public void setUp() {
+        MockServer.get();
+        this.gui = new SwiftGui(this.numberOfPages, 6, "Page");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.gui.dispose();
+    }
+
+    @Benchmark
+    public Page deleteAndInsertPage() {
+        int pageNumber = this.numberOfPages / 2;
+        this.gui.deletePage(this.gui.getPage(pageNumber));
+        return this.gui.insertNewPage(pageNumber, 6, "Page");
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import io.github.ayushchivate.swiftgui.Layout;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling the border of every page, from a border pattern and from a precompiled layout.
+ * The material changes on every call, so every slot of the border is changed every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FillBorderBenchmark {
+
+    private static final int[][] BORDER_PATTERN = {
+            {1, 1, 1, 1, 1, 1, 1, 1, 1},
+            {1, 0, 0, 0, 0, 0, 0, 0, 1},
+            {1, 0, 0, 0, 0, 0, 0, 0, 1},
+            {1, 0, 0, 0, 0, 0, 0, 0, 1},
+            {1, 0, 0, 0, 0, 0, 0, 0, 1},
+            {1, 1, 1, 1, 1, 1, 1, 1, 1}
+    };
+
+    @Param({"10", "100", "1000"})
+    public int numberOfPages;
+
+    private SwiftGui gui;
+
+    private Layout blackBorder;
+
+    private Layout grayBorder;
+
+    private boolean black;
+
+    @Setup
+    public void setUp() {
+        MockServer.get();
+        this.gui = new SwiftGui(this.numberOfPages, 6, "Page");
+        this.blackBorder = Layout.of(BORDER_PATTERN, Material.BLACK_STAINED_GLASS_PANE);
+        this.grayBorder = Layout.of(BORDER_PATTERN, Material.GRAY_STAINED_GLASS_PANE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.gui.dispose();
+    }
+
+    @Benchmark
+    public SwiftGui fillBorderAllPattern() {
+        this.black = !this.black;
+        this.gui.fillBorderAll(BORDER_PATTERN,
+                this.black ? Material.BLACK_STAINED_GLASS_PANE : Material.GRAY_STAINED_GLASS_PANE);
+        return this.gui;
+    }
+
+    @Benchmark
+    public SwiftGui fillBorderAllLayout() {
+        this.black = !this.black;
+        this.gui.fillBorderAll(this.black ? this.blackBorder : this.grayBorder);
+        return this.gui;
+    }
+}
@@ -0,0 +1,395 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import io.github.ayushchivate.swiftgui.CustomButton;
+import io.github.ayushchivate.swiftgui.LatencyHistogram;
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Simulates many players paging through SwiftGuis on MockBukkit and reports how the library holds up.
+ * <p>
+ * Every simulated tick each player acts with a chance that matches the configured rate:
+ * a player that is not viewing a page opens its SwiftGui, and a player that is clicks a back, forward,
+ * new page, delete page or custom button, picked with the configured weights.
+ * The simulation runs as fast as it can, and every report interval prints the actions per second of wall time,
+ * the average time of a simulated tick, the p50, p99 and max time of an action,
+ * the p99 time of the library's dispatch and of {@code onClick} from {@link SwiftGui#getMetrics()},
+ * the bytes allocated by the simulation thread per action, the heap in use,
+ * the number of SwiftGuis that have not been disposed and the number that were garbage collected without being
+ * disposed, which grow if SwiftGuis leak.
+ * After the last interval every SwiftGui is disposed and the heap still in use after a garbage collection
+ * and the number of SwiftGuis that were not disposed are printed.
+ * <p>
+ * Run it from the shaded jar, for example
+ * {@code java -cp target/benchmarks.jar io.github.ayushchivate.swiftgui.benchmarks.LoadSimulator --players 2000}.
+ * The options are:
+ * <ul>
+ *     <li>{@code --players} the number of players, 1000 by default</li>
+ *     <li>{@code --guis} the number of SwiftGuis the players are spread over, 100 by default</li>
+ *     <li>{@code --pages} the number of pages each SwiftGui starts with, 10 by default</li>
+ *     <li>{@code --rows} the number of rows of every page, 6 by default</li>
+ *     <li>{@code --custom-buttons} the number of custom buttons on every page, 9 by default</li>
+ *     <li>{@code --rate} the number of actions of each player every second, 2 by default</li>
+ *     <li>{@code --seconds} the number of simulated seconds, 60 by default</li>
+ *     <li>{@code --report-every} the number of simulated seconds between reports, 5 by default</li>
+ *     <li>{@code --mix} the weights of back, forward, new page, delete page and custom clicks,
+ *     4,4,1,1,4 by default</li>
+ *     <li>{@code --seed} the seed of the random choices, 1 by default</li>
+ * </ul>
+ * The time and allocations of an action include MockBukkit creating and calling the click event,
+ * so they are an upper bound of what the library costs.
+ */
+public final class LoadSimulator {
+
+    private static final int TICKS_PER_SECOND = 20;
+
+    private static final int BACK = 0;
+    private static final int FORWARD = 1;
+    private static final int NEW_PAGE = 2;
+    private static final int DELETE_PAGE = 3;
+    private static final int CUSTOM = 4;
+
+    private int players = 1000;
+    private int guis = 100;
+    private int pages = 10;
+    private int rows = 6;
+    private int customButtons = 9;
+    private double rate = 2;
+    private int seconds = 60;
+    private int reportEvery = 5;
+    private int[] mix = {4, 4, 1, 1, 4};
+    private long seed = 1;
+
+    /**
+     * The time of every action in the current report interval in nanoseconds.
+     */
+    private long[] actionNanos = new long[1024];
+
+    private int numberOfActions;
+
+    private LoadSimulator() {
+    }
+
+    public static void main(String[] args) {
+        LoadSimulator simulator = new LoadSimulator();
+        simulator.parse(args);
+        simulator.run();
+        System.exit(0);
+    }
+
+    /**
+     * Reads the options from the command line arguments.
+     *
+     * @param args the arguments
+     * @throws IllegalArgumentException if an option is unknown or has no valid value
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException(args[i] + " has no value.");
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--players":
+                    this.players = positive(args[i], value);
+                    break;
+                case "--guis":
+                    this.guis = positive(args[i], value);
+                    break;
+                case "--pages":
+                    this.pages = positive(args[i], value);
+                    break;
+                case "--rows":
+                    this.rows = positive(args[i], value);
+                    break;
+                case "--custom-buttons":
+                    this.customButtons = Integer.parseInt(value);
+                    break;
+                case "--rate":
+                    this.rate = Double.parseDouble(value);
+                    break;
+                case "--seconds":
+                    this.seconds = positive(args[i], value);
+                    break;
+                case "--report-every":
+                    this.reportEvery = positive(args[i], value);
+                    break;
+                case "--mix":
+                    this.mix = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    if (this.mix.length != 5) {
+                        throw new IllegalArgumentException("--mix must have 5 weights.");
+                    }
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+            }
+        }
+
+        /* the custom buttons go in the rows above the last one, which holds the page buttons */
+        if (this.rows < 2 || this.rows > 6) {
+            throw new IllegalArgumentException("--rows must be between 2 and 6.");
+        }
+        if (this.customButtons < 0 || this.customButtons > (this.rows - 1) * 9) {
+            throw new IllegalArgumentException("--custom-buttons must fit in the rows above the last row.");
+        }
+    }
+
+    private static int positive(String option, String value) {
+        int number = Integer.parseInt(value);
+        if (number <= 0) {
+            throw new IllegalArgumentException(option + " must be positive.");
+        }
+        return number;
+    }
+
+    private void run() {
+        ServerMock server = MockServer.get();
+        Random random = new Random(this.seed);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        SwiftGui[] swiftGuis = new SwiftGui[this.guis];
+        for (int i = 0; i < this.guis; i++) {
+            swiftGuis[i] = createGui(i);
+        }
+        PlayerMock[] playerMocks = new PlayerMock[this.players];
+        for (int i = 0; i < this.players; i++) {
+            playerMocks[i] = server.addPlayer();
+        }
+
+        int totalWeight = 0;
+        for (int weight : this.mix) {
+            totalWeight += weight;
+        }
+        double chancePerTick = this.rate / TICKS_PER_SECOND;
+        long heapAtStart = usedHeapAfterGc(memory);
+
+        System.out.printf("%d players, %d SwiftGuis of %d pages with %d rows and %d custom buttons, " +
+                        "%.1f actions per player per second%n", this.players, this.guis, this.pages, this.rows,
+                this.customButtons, this.rate);
+        System.out.println("second  actions/s  tick(ms)  action p50/p99/max(us)  dispatch p99(us)  " +
+                "onClick p99(us)  alloc/action(B)  heap(MB)  undisposed  leaked");
+
+        int ticksPerReport = this.reportEvery * TICKS_PER_SECOND;
+        long intervalStart = System.nanoTime();
+        long allocatedAtIntervalStart = threads.getThreadAllocatedBytes(threadId);
+        for (int tick = 1; tick <= this.seconds * TICKS_PER_SECOND; tick++) {
+            for (int i = 0; i < this.players; i++) {
+                if (random.nextDouble() < chancePerTick) {
+                    act(playerMocks[i], swiftGuis[i % this.guis], random, totalWeight);
+                }
+            }
+            server.getScheduler().performOneTick();
+
+            if (tick % ticksPerReport == 0) {
+                long now = System.nanoTime();
+                long allocated = threads.getThreadAllocatedBytes(threadId);
+                report(tick / TICKS_PER_SECOND, swiftGuis, now - intervalStart, ticksPerReport,
+                        allocated - allocatedAtIntervalStart, memory.getHeapMemoryUsage().getUsed());
+                intervalStart = System.nanoTime();
+                allocatedAtIntervalStart = threads.getThreadAllocatedBytes(threadId);
+            }
+        }
+
+        /* everything the simulation created should be collectable once the SwiftGuis are disposed */
+        for (SwiftGui swiftGui : swiftGuis) {
+            swiftGui.dispose();
+        }
+        server.getScheduler().performOneTick();
+        long heapAtEnd = usedHeapAfterGc(memory);
+        System.out.printf("heap growth after disposing: %.1f MB, undisposed SwiftGuis: %d%n",
+                (heapAtEnd - heapAtStart) / 1048576.0, SwiftGui.reportUndisposed());
+    }
+
+    /**
+     * Creates a SwiftGui whose pages have every kind of page button and the configured custom buttons.
+     *
+     * @param number the number of the SwiftGui, used in its page names
+     * @return the SwiftGui
+     */
+    private SwiftGui createGui(int number) {
+        SwiftGui swiftGui = new SwiftGui(this.pages, this.rows, "Gui " + number);
+        swiftGui.getMetrics().setName("Gui " + number);
+        swiftGui.numberAscendingOrderAll();
+        swiftGui.addBackButtonAll();
+        swiftGui.addForwardButtonAll();
+        swiftGui.addNewPageButtonAll();
+        swiftGui.addDeletePageButtonAll();
+        for (int index = 0; index < this.customButtons; index++) {
+            for (Page page : swiftGui.getAllPages()) {
+                page.addCustomButton(new CountingButton(index, swiftGui));
+            }
+        }
+        return swiftGui;
+    }
+
+    /**
+     * Makes a player open its SwiftGui or click one of the buttons of the page it is viewing.
+     */
+    private void act(PlayerMock player, SwiftGui swiftGui, Random random, int totalWeight) {
+        Page page = swiftGui.getViewedPage(player);
+        if (page == null) {
+            long start = System.nanoTime();
+            swiftGui.open(player);
+            recordAction(System.nanoTime() - start);
+            return;
+        }
+
+        int action = pick(random.nextInt(totalWeight));
+        int numberOfPages = swiftGui.getAllPages().length;
+
+        /* keep every SwiftGui between one page and twice its starting size */
+        if (action == DELETE_PAGE && numberOfPages == 1) {
+            action = NEW_PAGE;
+        } else if (action == NEW_PAGE && numberOfPages >= this.pages * 2) {
+            action = DELETE_PAGE;
+        } else if (action == CUSTOM && this.customButtons == 0) {
+            action = FORWARD;
+        }
+
+        int lastRow = this.rows * 9 - 9;
+        int slot;
+        switch (action) {
+            case BACK:
+                slot = lastRow;
+                break;
+            case FORWARD:
+                slot = lastRow + 8;
+                break;
+            case NEW_PAGE:
+                slot = lastRow + 5;
+                break;
+            case DELETE_PAGE:
+                slot = lastRow + 3;
+                break;
+            default:
+                slot = random.nextInt(this.customButtons);
+                break;
+        }
+
+        long start = System.nanoTime();
+        player.simulateInventoryClick(slot);
+        recordAction(System.nanoTime() - start);
+    }
+
+    private int pick(int roll) {
+        for (int action = 0; action < this.mix.length; action++) {
+            roll -= this.mix[action];
+            if (roll < 0) {
+                return action;
+            }
+        }
+        return CUSTOM;
+    }
+
+    private void recordAction(long nanos) {
+        if (this.numberOfActions == this.actionNanos.length) {
+            this.actionNanos = Arrays.copyOf(this.actionNanos, this.numberOfActions * 2);
+        }
+        this.actionNanos[this.numberOfActions++] = nanos;
+    }
+
+    /**
+     * Prints one line about the report interval that just ended and starts the next one.
+     */
+    private void report(int second, SwiftGui[] swiftGuis, long wallNanos, int ticks, long allocatedBytes,
+                        long usedHeap) {
+        Arrays.sort(this.actionNanos, 0, this.numberOfActions);
+
+        long[] dispatchBuckets = new long[LatencyHistogram.NUMBER_OF_BUCKETS];
+        long[] handlerBuckets = new long[LatencyHistogram.NUMBER_OF_BUCKETS];
+        for (SwiftGui swiftGui : swiftGuis) {
+            add(dispatchBuckets, swiftGui.getMetrics().getDispatchLatency().getBucketCounts());
+            add(handlerBuckets, swiftGui.getMetrics().getHandlerLatency().getBucketCounts());
+            swiftGui.getMetrics().reset();
+        }
+
+        System.out.printf("%6d  %9.0f  %8.3f  %8.1f/%.1f/%.1f  %16.1f  %15.1f  %15d  %8.1f  %10d  %6d%n",
+                second,
+                this.numberOfActions / (wallNanos / 1e9),
+                wallNanos / 1e6 / ticks,
+                percentile(0.5) / 1000.0, percentile(0.99) / 1000.0, percentile(1) / 1000.0,
+                bucketPercentile(dispatchBuckets, 0.99) / 1000.0,
+                bucketPercentile(handlerBuckets, 0.99) / 1000.0,
+                this.numberOfActions == 0 ? 0 : allocatedBytes / this.numberOfActions,
+                usedHeap / 1048576.0,
+                SwiftGui.countUndisposed(),
+                SwiftGui.countLeaked());
+
+        this.numberOfActions = 0;
+    }
+
+    private long percentile(double percentile) {
+        if (this.numberOfActions == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * this.numberOfActions);
+        return this.actionNanos[Math.max(0, rank - 1)];
+    }
+
+    private static void add(long[] sum, long[] counts) {
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += counts[i];
+        }
+    }
+
+    /**
+     * Gets the end of the bucket the percentile falls in, the same way {@link LatencyHistogram} does.
+     */
+    private static long bucketPercentile(long[] buckets, double percentile) {
+        long count = 0;
+        for (long bucketCount : buckets) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * A button that only counts its clicks, standing in for the custom buttons of a plugin.
+     */
+    static final class CountingButton extends CustomButton {
+
+        private static long clicks;
+
+        CountingButton(int index, SwiftGui swiftGui) {
+            super(index, Material.STONE, swiftGui);
+        }
+
+        @Override
+        public void onClick(InventoryClickEvent event) {
+            clicks++;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.plugin.MockPlugin;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+
+/**
+ * Starts MockBukkit once for every benchmark fork and sets it as the plugin instance of SwiftGui.
+ */
+final class MockServer {
+
+    private static ServerMock server;
+
+    private MockServer() {
+    }
+
+    /**
+     * Gets the mock server, starting it if it has not been started yet.
+     *
+     * @return the mock server
+     */
+    static synchronized ServerMock get() {
+        if (server == null) {
+            server = MockBukkit.mock();
+            MockPlugin plugin = MockBukkit.createMockPlugin();
+            SwiftGui.setPluginInstance(plugin);
+        }
+        return server;
+    }
+}
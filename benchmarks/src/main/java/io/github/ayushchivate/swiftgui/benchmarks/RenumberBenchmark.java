@@ -0,0 +1,74 @@
+package io.github.ayushchivate.swiftgui.benchmarks;
+
+import io.github.ayushchivate.swiftgui.Page;
+import io.github.ayushchivate.swiftgui.SwiftGui;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures changing the numbering of a SwiftGui, and working out the titles of its pages,
+ * which is what opening a page does with the new numbering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenumberBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int numberOfPages;
+
+    private SwiftGui gui;
+
+    private boolean ascending;
+
+    @Setup
+    public void setUp() {
+        MockServer.get();
+        this.gui = new SwiftGui(this.numberOfPages, 6, "Page");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.gui.dispose();
+    }
+
+    @Benchmark
+    public SwiftGui renumber() {
+        this.ascending = !this.ascending;
+        if (this.ascending) {
+            this.gui.numberAscendingOrderAll();
+        } else {
+            this.gui.numberDescendingOrderAll();
+        }
+        return this.gui;
+    }
+
+    @Benchmark
+    public void renumberAndTitleAll(Blackhole blackhole) {
+        renumber();
+        for (Page page : this.gui.getAllPages()) {
+            blackhole.consume(page.getTitle());
+        }
+    }
+
+    @Benchmark
+    public String titleOfLastPage() {
+        return this.gui.getPage(this.numberOfPages).getTitle();
+    }
+}
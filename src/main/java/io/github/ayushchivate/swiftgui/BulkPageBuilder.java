@@ -0,0 +1,136 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the content of many pages in parallel and puts them in a SwiftGui all at once.
+ * <p>
+ * The names and content of the pages are worked out on a {@link ForkJoinPool}, one page per task,
+ * so building a large catalog uses every core. The finished pages are then put in the SwiftGui
+ * in a single task on the server thread, so players never see a SwiftGui that is only partly built.
+ * The content is filled into {@link PageContent}s, so it must not touch any page or other Bukkit state.
+ * <p>
+ * A builder is made with {@link SwiftGui#bulkBuilder}, for example
+ * <pre>{@code
+ * swiftGui.bulkBuilder(products.size() / 45, 6)
+ *         .names(index -> "Shop")
+ *         .content((content, index) -> fillProducts(content, index))
+ *         .replaceAllAsync();
+ * }</pre>
+ */
+public final class BulkPageBuilder {
+
+    private final SwiftGui swiftGui;
+
+    private final int numberOfPages;
+
+    private final int numberOfRows;
+
+    /**
+     * Works out the name of the page at a position in the batch.
+     */
+    private IntFunction<String> names = index -> "";
+
+    /**
+     * Fills in the content of the page at a position in the batch.
+     */
+    private ObjIntConsumer<PageContent> content = (content, index) -> {
+    };
+
+    /**
+     * The pool the pages are built on.
+     */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Creates a builder for the specified number of pages.
+     *
+     * @param swiftGui      the SwiftGui the pages are put in
+     * @param numberOfPages the number of pages
+     * @param numberOfRows  the number of rows of every page
+     * @throws IllegalArgumentException if the number of pages is negative or the number of rows is not positive
+     */
+    BulkPageBuilder(SwiftGui swiftGui, int numberOfPages, int numberOfRows) {
+        if (numberOfPages < 0) {
+            throw new IllegalArgumentException("numberOfPages cannot be negative");
+        } else if (numberOfRows <= 0) {
+            throw new IllegalArgumentException("numberOfRows must be a positive multiple of 9");
+        }
+        this.swiftGui = swiftGui;
+        this.numberOfPages = numberOfPages;
+        this.numberOfRows = numberOfRows;
+    }
+
+    /**
+     * Sets how the name of every page is worked out. The pages have no name by default.
+     *
+     * @param names gets the name of the page at a position in the batch, starting at 0
+     * @return this builder
+     */
+    public BulkPageBuilder names(@NotNull IntFunction<String> names) {
+        this.names = names;
+        return this;
+    }
+
+    /**
+     * Sets how the content of every page is filled in. It is called for several pages at the same time.
+     *
+     * @param content fills in the content of the page at a position in the batch, starting at 0
+     * @return this builder
+     */
+    public BulkPageBuilder content(@NotNull ObjIntConsumer<PageContent> content) {
+        this.content = content;
+        return this;
+    }
+
+    /**
+     * Sets the pool the pages are built on. The common pool is used by default.
+     *
+     * @param pool the pool
+     * @return this builder
+     */
+    public BulkPageBuilder pool(@NotNull ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Builds the pages and adds them after the last page of the SwiftGui.
+     *
+     * @return a future that completes on the server thread with the pages once they are in the SwiftGui
+     */
+    public CompletableFuture<Page[]> addAsync() {
+        return build(false);
+    }
+
+    /**
+     * Builds the pages and puts them in the SwiftGui instead of every page it has.
+     * The old pages are disposed, and players who were viewing one are moved to the new page with the same
+     * page number, or to the last page if there are fewer pages.
+     *
+     * @return a future that completes on the server thread with the pages once they are in the SwiftGui
+     */
+    public CompletableFuture<Page[]> replaceAllAsync() {
+        return build(true);
+    }
+
+    private CompletableFuture<Page[]> build(boolean replace) {
+        String[] pageNames = new String[this.numberOfPages];
+        PageContent[] contents = new PageContent[this.numberOfPages];
+
+        /* every task fills in its own slots of the arrays, and the stream finishing publishes them */
+        return CompletableFuture.runAsync(() -> IntStream.range(0, this.numberOfPages).parallel().forEach(index -> {
+            pageNames[index] = this.names.apply(index);
+            PageContent pageContent = new PageContent(this.numberOfRows);
+            this.content.accept(pageContent, index);
+            contents[index] = pageContent;
+        }), this.pool).thenCompose(built -> this.swiftGui.call(swiftGui ->
+                swiftGui.installPages(this.numberOfRows, pageNames, contents, replace)));
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * The changes to a SwiftGui that were made on other threads, waiting to be made on the server thread.
+ * <p>
+ * Changes can be added from any thread and are made in the order they were added.
+ * A change added on the server thread is made straight away, after the changes that are still waiting.
+ * Changes added on other threads are made by a task on the next tick, which is only scheduled once
+ * however many changes are added before it runs.
+ */
+final class ChangeQueue {
+
+    /**
+     * The changes that have not been made yet, in the order they were added.
+     */
+    private final Queue<Runnable> changes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Determines if a task that makes the waiting changes has been scheduled and has not started yet.
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * Adds a change that is made on the server thread.
+     * A change that throws an exception is logged and the changes after it are still made.
+     *
+     * @param change the change
+     * @throws IllegalStateException if the change is added on another thread and the plugin is not enabled
+     */
+    void add(Runnable change) {
+        this.changes.add(change);
+
+        if (Bukkit.isPrimaryThread()) {
+            drain();
+            return;
+        }
+
+        if (this.drainScheduled.compareAndSet(false, true)) {
+            JavaPlugin plugin = SwiftGui.getPluginInstance();
+            if (plugin == null || !plugin.isEnabled()) {
+                this.changes.remove(change);
+                this.drainScheduled.set(false);
+                throw new IllegalStateException("Changes can only be made from other threads " +
+                        "while the plugin is enabled.");
+            }
+            Bukkit.getScheduler().runTask(plugin, this::drain);
+        }
+    }
+
+    /**
+     * Makes every waiting change on this thread, which must be the server thread.
+     */
+    void drain() {
+        this.drainScheduled.set(false);
+
+        Runnable change;
+        while ((change = this.changes.poll()) != null) {
+            try {
+                change.run();
+            } catch (RuntimeException e) {
+                JavaPlugin plugin = SwiftGui.getPluginInstance();
+                (plugin != null ? plugin.getLogger() : Bukkit.getLogger())
+                        .log(Level.WARNING, "A change made to a SwiftGui from another thread failed", e);
+            }
+        }
+    }
+}
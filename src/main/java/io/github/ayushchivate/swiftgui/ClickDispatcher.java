@@ -0,0 +1,182 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * The single listener that receives every inventory click and routes it to the page and button it belongs to.
+ * It keeps players from moving the items of buttons, and tells pages when players move other items in or out
+ * of them, so the moved items are remembered and journaled.
+ */
+final class ClickDispatcher implements Listener {
+
+    ClickDispatcher() {
+    }
+
+    /**
+     * Routes a click to the button in the clicked slot of the page whose inventory was clicked.
+     * Clicks on a button are cancelled, and so are clicks that would stack items onto the item of a button.
+     * The time spent routing the click and the time the button's {@code onClick} takes
+     * are recorded in the metrics of the page's SwiftGui.
+     *
+     * @param event the event that is fired when an inventory is clicked
+     */
+    @EventHandler
+    private void onInventoryClick(InventoryClickEvent event) {
+        boolean measured = GuiMetrics.isEnabled();
+        long start = measured ? System.nanoTime() : 0;
+
+        /* make sure the player clicked inside an inventory */
+        Inventory clickedInventory = event.getClickedInventory();
+        if (clickedInventory == null) {
+            return;
+        }
+
+        /* drop clicks in inventories that were not created by a page */
+        InventoryHolder holder = clickedInventory.getHolder();
+        if (!(holder instanceof PageHolder)) {
+            /* shift-clicking or collecting in the bottom inventory can still stack items onto a button */
+            if (event.getAction() == InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+                cancelIfStackingOnButton(event, event.getCurrentItem());
+            } else if (event.getAction() == InventoryAction.COLLECT_TO_CURSOR) {
+                cancelIfStackingOnButton(event, event.getCursor());
+            }
+            return;
+        }
+        Page page = ((PageHolder) holder).getPage();
+        if (page.isDisposed()) {
+            return;
+        }
+        GuiMetrics metrics = page.getSwiftGui().getMetrics();
+
+        CustomButton button = page.getButton(event.getSlot());
+        if (button == null) {
+            /* collecting to the cursor takes matching items from every slot, including the ones of buttons */
+            if (event.getAction() == InventoryAction.COLLECT_TO_CURSOR) {
+                cancelIfStackingOnButton(event, event.getCursor());
+            }
+            if (measured) {
+                metrics.clickRejected();
+            }
+            return;
+        }
+
+        /* the item of a button stays in its slot, so a button cannot be pressed after its item was moved away */
+        event.setCancelled(true);
+
+        /* let the button in the clicked slot check the click */
+        if (!button.checkForButtonPress(event, page)) {
+            if (measured) {
+                metrics.clickRejected();
+            }
+            return;
+        }
+
+        /* execute user-defined code */
+        if (!measured) {
+            button.onClick(event);
+            return;
+        }
+        long handlerStart = System.nanoTime();
+        try {
+            button.onClick(event);
+        } finally {
+            long end = System.nanoTime();
+            metrics.clickHandled(button, handlerStart - start, end - handlerStart);
+        }
+    }
+
+    /**
+     * Cancels a drag that would put items into the slot of a button.
+     *
+     * @param event the event that is fired when items are dragged across an inventory
+     */
+    @EventHandler
+    private void onInventoryDrag(InventoryDragEvent event) {
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (!(holder instanceof PageHolder)) {
+            return;
+        }
+        Page page = ((PageHolder) holder).getPage();
+        int size = page.getNumberOfRows() * 9;
+        for (int rawSlot : event.getRawSlots()) {
+            if (rawSlot < size && page.getButton(rawSlot) != null) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tells the page of the top inventory that a player may have moved items in or out of it,
+     * once every other listener had the chance to cancel the click.
+     *
+     * @param event the event that is fired when an inventory is clicked
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onItemsMoved(InventoryClickEvent event) {
+        Inventory topInventory = event.getView().getTopInventory();
+        InventoryAction action = event.getAction();
+        /* clicks in the bottom inventory only reach the top one by shift-clicking or collecting to the cursor */
+        if (event.getRawSlot() >= topInventory.getSize() && action != InventoryAction.MOVE_TO_OTHER_INVENTORY &&
+                action != InventoryAction.COLLECT_TO_CURSOR) {
+            return;
+        }
+        itemsMoved(topInventory);
+    }
+
+    /**
+     * Tells the page of the top inventory that a player dragged items into it.
+     *
+     * @param event the event that is fired when items are dragged across an inventory
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onItemsDragged(InventoryDragEvent event) {
+        Inventory topInventory = event.getView().getTopInventory();
+        for (int rawSlot : event.getRawSlots()) {
+            if (rawSlot < topInventory.getSize()) {
+                itemsMoved(topInventory);
+                return;
+            }
+        }
+    }
+
+    private static void itemsMoved(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder();
+        if (holder instanceof PageHolder) {
+            ((PageHolder) holder).getPage().itemsMoved();
+        }
+    }
+
+    /**
+     * Cancels a click if the specified item could be stacked onto or collected from the item of a button
+     * in the page of the top inventory.
+     *
+     * @param event the click
+     * @param item  the item that is moved, or null
+     */
+    private static void cancelIfStackingOnButton(InventoryClickEvent event, ItemStack item) {
+        if (item == null) {
+            return;
+        }
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (!(holder instanceof PageHolder)) {
+            return;
+        }
+        Page page = ((PageHolder) holder).getPage();
+        int size = page.getNumberOfRows() * 9;
+        for (int index = 0; index < size; index++) {
+            if (page.getButton(index) != null && item.isSimilar(page.getRememberedItem(index))) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+}
@@ -2,13 +2,11 @@ package io.github.ayushchivate.swiftgui;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
 /* An abstract class that represents a user-defined button */
-public abstract class CustomButton implements Listener {
+public abstract class CustomButton {
 
     /**
      * The index this button will be placed in.
@@ -30,6 +28,11 @@ public abstract class CustomButton implements Listener {
      */
     Page page;
 
+    /**
+     * Determines if this button has been disposed.
+     */
+    private boolean disposed = false;
+
     /**
      * Creates a page with the specified index, material, and SwiftGui.
      *
@@ -39,9 +42,6 @@ public abstract class CustomButton implements Listener {
      */
     public CustomButton(int index, Material material, SwiftGui swiftGui) {
 
-        /* register the event */
-        Bukkit.getPluginManager().registerEvents(this, SwiftGui.getPluginInstance());
-
         /* make sure the index is not negative */
         if (index < 0) {
             throw new IllegalArgumentException("CustomButton index cannot be negative. Must be a positive integer.");
@@ -76,6 +76,38 @@ public abstract class CustomButton implements Listener {
         this.page = page;
     }
 
+    /**
+     * Removes this button from its page and stops it from receiving clicks.
+     * The button stops receiving clicks straight away, and on other threads it is removed from its page
+     * on the server thread.
+     */
+    public void dispose() {
+        this.disposed = true;
+        if (!Bukkit.isPrimaryThread()) {
+            this.swiftGui.runOnServerThread(this::removeFromPage);
+            return;
+        }
+        removeFromPage();
+    }
+
+    /**
+     * Removes this button from the page it is on, if it is on one.
+     */
+    private void removeFromPage() {
+        if (this.page != null) {
+            this.page.removeButton(this.index);
+        }
+    }
+
+    /**
+     * Gets if this button has been disposed.
+     *
+     * @return true if this button has been disposed
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
     /**
      * User defined method to control what happens after the button is clicked.
      *
@@ -85,34 +117,35 @@ public abstract class CustomButton implements Listener {
 
     /**
      * Detects when the button is pressed.
+     * The click has already been routed to the page this button is in by the {@link ClickDispatcher},
+     * which calls {@link #onClick} if the button was pressed.
+     * The clicked item is looked up in the page instead of the event, since getting it from the event copies it.
      *
      * @param event the event that is fired when the button is clicked.
+     * @param page  the page whose inventory was clicked
+     * @return true if the click pressed this button
      */
-    @EventHandler
-    private void checkForButtonPress(InventoryClickEvent event) {
+    boolean checkForButtonPress(InventoryClickEvent event, Page page) {
 
-        /* check if the player clicked in the inventory this button is in */
-        String thisInventoryName = this.page.getName();
-        String otherInventoryName = event.getView().getTitle();
-        if (!thisInventoryName.equals(otherInventoryName)) {
-            return;
+        /* make sure the button is still in use */
+        if (this.disposed) {
+            return false;
         }
 
         /* check if the player clicked on the index of this button */
         if (this.index != event.getSlot()) {
-            return;
+            return false;
         }
 
         /* check if the item the player clicked is the same item as this button */
-        ItemStack clickedItemStack = event.getCurrentItem();
+        ItemStack clickedItemStack = page.getRememberedItem(this.index);
         if (clickedItemStack == null) {
-            return;
+            return false;
         }
         if (this.material != clickedItemStack.getType()) {
-            return;
+            return false;
         }
 
-        /* execute user-defined code */
-        onClick(event);
+        return true;
     }
 }
@@ -1,11 +1,10 @@
 package io.github.ayushchivate.swiftgui;
 
 import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 
-import java.util.Map;
-
 public class ForwardButton extends CustomButton {
 
     /**
@@ -27,30 +26,14 @@ public class ForwardButton extends CustomButton {
     @Override
     public void onClick(InventoryClickEvent event) {
 
-        Player player;
-
-        try {
-            /* get the player */
-            player = (Player) event.getWhoClicked();
-        } catch (ClassCastException e) {
-            return;
-        }
-
-        /* get the map of pages*/
-        Map<Integer, Page> pages = this.swiftGui.getPages();
-
-        /* get the page number of the next page */
-        int nextPageNumber = this.page.getPageNumber() + 1;
-
-        /* get the next page using the next page's page number as a key */
-        Page nextPage = pages.get(nextPageNumber);
-
-        /* make sure the previous page exists */
-        if (nextPage == null) {
+        /* get the player */
+        HumanEntity whoClicked = event.getWhoClicked();
+        if (!(whoClicked instanceof Player)) {
             return;
         }
+        Player player = (Player) whoClicked;
 
-        /* open the previous page for the player */
-        nextPage.openInventory(player);
+        /* open the next page for the player */
+        this.swiftGui.openPage(player, this.page, this.page.getPageNumber() + 1);
     }
 }
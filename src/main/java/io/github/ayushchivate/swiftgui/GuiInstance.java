@@ -0,0 +1,256 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The items of a {@link GuiTemplate} that are different for a single player.
+ * <p>
+ * An instance only remembers the slots that were set for its player.
+ * Every other slot shows the item of the template page,
+ * and the page the player sees is only made when they open it.
+ */
+public final class GuiInstance {
+
+    /**
+     * The template this instance shows.
+     */
+    private final GuiTemplate template;
+
+    /**
+     * The unique id of the player this instance is for.
+     */
+    private final UUID viewer;
+
+    /**
+     * The items set for the player in every template page, indexed by slot.
+     * A slot that is set to null is empty for the player.
+     */
+    private final Map<Page, Map<Integer, ItemStack>> overlays = new IdentityHashMap<>();
+
+    /**
+     * The page made for the player for every template page they have open or opened recently.
+     */
+    private final Map<Page, Page> pages = new IdentityHashMap<>();
+
+    /**
+     * Determines if this instance has been disposed.
+     */
+    private boolean disposed = false;
+
+    GuiInstance(GuiTemplate template, UUID viewer) {
+        this.template = template;
+        this.viewer = viewer;
+    }
+
+    /**
+     * Gets the template this instance shows.
+     *
+     * @return the template
+     */
+    public GuiTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Gets the unique id of the player this instance is for.
+     *
+     * @return the unique id of the player
+     */
+    public UUID getViewer() {
+        return viewer;
+    }
+
+    /**
+     * Puts the specified item in the specified slot for the player of this instance only.
+     * If the player has the page open, they see the change straight away.
+     * An item put in the slot of a button hides the button.
+     *
+     * @param pageNumber the page number of the template page
+     * @param index      the index of the slot
+     * @param item       the item to put in the slot, or null to empty the slot
+     * @throws IllegalArgumentException if there is no page with that page number or the index is outside of it
+     * @throws IllegalStateException    if this instance has been disposed
+     */
+    public void setItem(int pageNumber, int index, ItemStack item) {
+        if (!Bukkit.isPrimaryThread()) {
+            this.template.runOnServerThread(() -> setItem(pageNumber, index, item));
+            return;
+        }
+        Page templatePage = getTemplatePage(pageNumber, index);
+        this.overlays.computeIfAbsent(templatePage, key -> new HashMap<>()).put(index, item);
+
+        Page page = this.pages.get(templatePage);
+        if (page != null) {
+            page.setItem(index, item);
+        }
+    }
+
+    /**
+     * Shows the item of the template in the specified slot again.
+     *
+     * @param pageNumber the page number of the template page
+     * @param index      the index of the slot
+     * @throws IllegalArgumentException if there is no page with that page number or the index is outside of it
+     * @throws IllegalStateException    if this instance has been disposed
+     */
+    public void resetItem(int pageNumber, int index) {
+        if (!Bukkit.isPrimaryThread()) {
+            this.template.runOnServerThread(() -> resetItem(pageNumber, index));
+            return;
+        }
+        Page templatePage = getTemplatePage(pageNumber, index);
+        Map<Integer, ItemStack> overlay = this.overlays.get(templatePage);
+        if (overlay == null || !overlay.containsKey(index)) {
+            return;
+        }
+        overlay.remove(index);
+        if (overlay.isEmpty()) {
+            this.overlays.remove(templatePage);
+        }
+
+        Page page = this.pages.get(templatePage);
+        if (page != null) {
+            page.setItem(index, templatePage.peekItem(index));
+        }
+    }
+
+    /**
+     * Gets the item the player of this instance sees in the specified slot.
+     *
+     * @param pageNumber the page number of the template page
+     * @param index      the index of the slot
+     * @return a copy of the item, or null if the slot is empty
+     * @throws IllegalArgumentException if there is no page with that page number or the index is outside of it
+     * @throws IllegalStateException    if this instance has been disposed
+     */
+    public ItemStack getItem(int pageNumber, int index) {
+        SwiftGui.checkServerThread();
+        Page templatePage = getTemplatePage(pageNumber, index);
+        ItemStack item = getShownItem(templatePage, index);
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * Gets if this instance has been disposed.
+     *
+     * @return true if this instance has been disposed
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Forgets the items of this instance and disposes the pages made for its player.
+     * The next time the player opens the template they get a new instance.
+     */
+    public void dispose() {
+
+        if (!Bukkit.isPrimaryThread()) {
+            this.template.runOnServerThread(this::dispose);
+            return;
+        }
+
+        if (this.disposed) {
+            return;
+        }
+        this.disposed = true;
+
+        Page[] pagesToDispose = this.pages.values().toArray(new Page[0]);
+        this.pages.clear();
+        for (Page page : pagesToDispose) {
+            page.dispose();
+        }
+        this.overlays.clear();
+
+        this.template.instanceDisposed(this);
+    }
+
+    /**
+     * Gets the page made for the player of this instance for the specified template page, making it if needed.
+     * The page is brought up to date with the template page, so changes to the template are seen when it is opened.
+     *
+     * @param templatePage the template page
+     * @return the page of the player
+     */
+    Page getPage(Page templatePage) {
+        checkNotDisposed();
+
+        Page page = this.pages.get(templatePage);
+        if (page == null) {
+            page = new Page(templatePage);
+            this.pages.put(templatePage, page);
+            this.template.pageCreated(page, this);
+        }
+
+        /* only slots whose item differs are changed */
+        for (int i = 0; i < templatePage.getNumberOfRows() * 9; i++) {
+            page.setItem(i, getShownItem(templatePage, i));
+        }
+
+        return page;
+    }
+
+    /**
+     * Forgets the specified page of the player after it has been disposed.
+     *
+     * @param page the page that was disposed
+     */
+    void pageDisposed(Page page) {
+        this.pages.remove(page.getTemplate(), page);
+    }
+
+    /**
+     * Forgets the items set for a template page that was removed from the template and disposes its page.
+     *
+     * @param templatePage the template page that was removed
+     */
+    void templatePageRemoved(Page templatePage) {
+        this.overlays.remove(templatePage);
+        Page page = this.pages.remove(templatePage);
+        if (page != null) {
+            page.dispose();
+        }
+    }
+
+    /**
+     * Gets the item the player sees in the specified slot of the specified template page without copying it.
+     *
+     * @param templatePage the template page
+     * @param index        the index of the slot
+     * @return the item, or null if the slot is empty
+     */
+    private ItemStack getShownItem(Page templatePage, int index) {
+        Map<Integer, ItemStack> overlay = this.overlays.get(templatePage);
+        if (overlay != null && overlay.containsKey(index)) {
+            return overlay.get(index);
+        }
+        return templatePage.peekItem(index);
+    }
+
+    private Page getTemplatePage(int pageNumber, int index) {
+        checkNotDisposed();
+
+        Page templatePage = this.template.getPage(pageNumber);
+        if (templatePage == null) {
+            throw new IllegalArgumentException("The GuiTemplate has no page " + pageNumber + ".");
+        }
+        if (index < 0 || index >= templatePage.getNumberOfRows() * 9) {
+            throw new IllegalArgumentException("index must be between 0 and " +
+                    (templatePage.getNumberOfRows() * 9 - 1) + " for a page with " +
+                    templatePage.getNumberOfRows() + " rows.");
+        }
+        return templatePage;
+    }
+
+    private void checkNotDisposed() {
+        if (this.disposed) {
+            throw new IllegalStateException("This GuiInstance has been disposed.");
+        }
+    }
+}
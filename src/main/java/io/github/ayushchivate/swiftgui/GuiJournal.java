@@ -0,0 +1,683 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Records every change to a SwiftGui in an append-only file, so changes survive a crash without saving
+ * the whole SwiftGui every time.
+ * <p>
+ * Pages being added and removed, the numbering changing, items being set or moved by players and built-in buttons
+ * being added and removed are recorded on the server thread and written to the journal in batches on another thread.
+ * The journal is synced to disk at most once every sync interval. Content loaded with {@link Page#loadAsync}
+ * and loading placeholders are not recorded.
+ * <p>
+ * The journal is split into generations, each in its own file next to the journal file.
+ * Once the current generation grows past the compaction threshold, the SwiftGui is saved as a
+ * {@link GuiSnapshot} and a new generation is started, so the generations that are in the snapshot are deleted.
+ * When the journal is opened, the snapshot is restored and the generations after it are replayed.
+ * A record that was only partly written when the server stopped is ignored, along with everything after it.
+ */
+public final class GuiJournal {
+
+    /**
+     * The first bytes of every journal file, "SGJL".
+     */
+    private static final int MAGIC = 0x53474A4C;
+
+    /**
+     * The version of the journal format.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The number of ticks between the batches written to the journal.
+     */
+    private static final long WRITE_PERIOD = 10;
+
+    private static final byte PAGE_ADDED = 1;
+    private static final byte PAGE_REMOVED = 2;
+    private static final byte NUMBERING_CHANGED = 3;
+    private static final byte ITEM_SET = 4;
+    private static final byte BUTTON_ADDED = 5;
+    private static final byte BUTTON_REMOVED = 6;
+
+    /**
+     * Not a change, but the point where the writer moves on to the next generation.
+     */
+    private static final byte ROTATE = 7;
+
+    private static final byte NUMBERING_ASCENDING = 1;
+    private static final byte NUMBERING_DESCENDING = 2;
+
+    /**
+     * The SwiftGui whose changes are recorded.
+     */
+    private final SwiftGui swiftGui;
+
+    /**
+     * The file the snapshot is saved to when the journal is compacted.
+     */
+    private final Path snapshotFile;
+
+    /**
+     * The file the generations are named after.
+     */
+    private final Path journalFile;
+
+    /**
+     * Runs the saving of snapshots.
+     */
+    private final Executor executor;
+
+    /**
+     * The changes that have been recorded but not written yet, in order.
+     */
+    private final Queue<Entry> pendingEntries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The generation new changes are recorded in, as seen by the server thread.
+     */
+    private long generation;
+
+    /**
+     * The generation the writer is writing to, as seen by the writer.
+     */
+    private long writerGeneration;
+
+    /**
+     * The file of the generation the writer is writing to, or null if it has not been opened yet.
+     */
+    private FileChannel channel;
+
+    /**
+     * The last time in milliseconds the journal was synced to disk.
+     */
+    private long lastSync = System.currentTimeMillis();
+
+    /**
+     * The time in milliseconds between syncs of the journal to disk.
+     */
+    private volatile long syncInterval = 1000;
+
+    /**
+     * The size in bytes of a generation after which the journal is compacted.
+     */
+    private volatile long compactionThreshold = 4 * 1024 * 1024;
+
+    /**
+     * Determines if the writer has asked the server thread to compact the journal.
+     */
+    private final AtomicBoolean compactionRequested = new AtomicBoolean();
+
+    /**
+     * The compaction that is running, or null.
+     */
+    private CompletableFuture<Void> compaction;
+
+    /**
+     * The task that writes the batches.
+     */
+    private BukkitTask task;
+
+    /**
+     * Determines if this journal has been closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * The final write started when this journal was closed, or null if it has not been closed.
+     */
+    private CompletableFuture<Void> closing;
+
+    private GuiJournal(SwiftGui swiftGui, Path snapshotFile, Path journalFile, long generation) {
+        this.swiftGui = swiftGui;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile.toAbsolutePath();
+        this.generation = generation;
+        this.writerGeneration = generation;
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        this.executor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    /**
+     * Restores the specified SwiftGui from the specified snapshot and journal, and records its changes from then on.
+     * The SwiftGui should not have any pages yet. This must be called on the server thread.
+     *
+     * @param swiftGui     the SwiftGui to be restored and recorded
+     * @param snapshotFile the file the snapshot is saved to, which does not have to exist yet
+     * @param journalFile  the file the generations of the journal are named after
+     * @return the journal
+     * @throws IOException           if the snapshot or the journal cannot be read
+     * @throws IllegalStateException if the plugin instance has not been set or the SwiftGui already has a journal
+     */
+    public static GuiJournal open(@NotNull SwiftGui swiftGui, @NotNull Path snapshotFile, @NotNull Path journalFile)
+            throws IOException {
+
+        if (SwiftGui.getPluginInstance() == null) {
+            throw new IllegalStateException("The plugin instance must be set with SwiftGui.setPluginInstance " +
+                    "before a journal is opened.");
+        }
+        if (swiftGui.getJournal() != null) {
+            throw new IllegalStateException("This SwiftGui already has a journal.");
+        }
+
+        long firstGeneration = Files.exists(snapshotFile) ? GuiSnapshot.read(snapshotFile, swiftGui) : 0;
+
+        /* replay the generations that are not in the snapshot, and delete the ones that are */
+        long lastGeneration = firstGeneration;
+        boolean replayed = false;
+        for (long generation : listGenerations(journalFile.toAbsolutePath())) {
+            Path file = generationFile(journalFile.toAbsolutePath(), generation);
+            if (generation < firstGeneration) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            replay(file, swiftGui);
+            replayed = true;
+            lastGeneration = Math.max(lastGeneration, generation);
+        }
+
+        GuiJournal journal = new GuiJournal(swiftGui, snapshotFile, journalFile, lastGeneration + 1);
+        swiftGui.setJournal(journal);
+        journal.task = Bukkit.getScheduler().runTaskTimerAsynchronously(SwiftGui.getPluginInstance(),
+                () -> journal.write(false), WRITE_PERIOD, WRITE_PERIOD);
+
+        /* fold what was replayed into the snapshot */
+        if (replayed) {
+            journal.compact();
+        }
+
+        return journal;
+    }
+
+    /**
+     * Sets the time between syncs of the journal to disk.
+     * Changes written since the last sync may be lost if the machine crashes.
+     *
+     * @param milliseconds the time in milliseconds, or 0 to sync after every batch
+     */
+    public void setSyncInterval(long milliseconds) {
+        this.syncInterval = milliseconds;
+    }
+
+    /**
+     * Sets the size of a generation after which the journal is compacted.
+     *
+     * @param bytes the size in bytes
+     */
+    public void setCompactionThreshold(long bytes) {
+        this.compactionThreshold = bytes;
+    }
+
+    /**
+     * Saves the SwiftGui as a snapshot and deletes the generations of the journal that are in it.
+     * This must be called on the server thread.
+     *
+     * @return a future that completes once the snapshot has been saved and the old generations deleted
+     * @throws IllegalStateException if this journal has been closed or this is not the server thread
+     */
+    public CompletableFuture<Void> compact() {
+        SwiftGui.checkServerThread();
+        if (this.closed) {
+            throw new IllegalStateException("This journal has been closed.");
+        }
+        if (this.compaction != null) {
+            return this.compaction;
+        }
+
+        /* everything recorded before this point is in the snapshot, everything after it goes to the next generation */
+        long nextGeneration = ++this.generation;
+        this.pendingEntries.add(Entry.rotate(nextGeneration));
+        this.compactionRequested.set(false);
+
+        CompletableFuture<Void> compaction = GuiSnapshot.save(this.swiftGui, this.snapshotFile, this.executor,
+                nextGeneration).thenRun(() -> deleteGenerationsBefore(nextGeneration));
+        this.compaction = compaction;
+
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        compaction.whenComplete((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.WARNING, "Failed to compact the journal " + this.journalFile, error);
+            }
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (this.compaction == compaction) {
+                        this.compaction = null;
+                    }
+                });
+            }
+        });
+
+        return compaction;
+    }
+
+    /**
+     * Stops recording changes, and writes and syncs every recorded change.
+     * This is done when the SwiftGui is disposed, and should be done when the plugin is disabled.
+     * The changes are written on one of the server's asynchronous worker threads, so closing does not block the tick.
+     * While the plugin is being disabled no tasks can be started, so they are written straight away instead.
+     * This must be called on the server thread.
+     *
+     * @return a future that completes once every change has been written and synced
+     */
+    public CompletableFuture<Void> close() {
+        if (this.closed) {
+            return this.closing;
+        }
+        this.closed = true;
+        this.task.cancel();
+        if (this.swiftGui.getJournal() == this) {
+            this.swiftGui.setJournal(null);
+        }
+
+        if (SwiftGui.getPluginInstance().isEnabled()) {
+            this.closing = CompletableFuture.runAsync(this::writeLast, this.executor);
+        } else {
+            writeLast();
+            this.closing = CompletableFuture.completedFuture(null);
+        }
+        return this.closing;
+    }
+
+    /**
+     * Writes and syncs the changes that are left and closes the current generation.
+     */
+    private void writeLast() {
+        write(true);
+        synchronized (this) {
+            if (this.channel != null) {
+                try {
+                    this.channel.close();
+                } catch (IOException e) {
+                    log("Failed to close the journal " + this.journalFile, e);
+                }
+                this.channel = null;
+            }
+        }
+    }
+
+    void pageAdded(int pageNumber, int numberOfRows, String name) {
+        Entry entry = new Entry(PAGE_ADDED, pageNumber);
+        entry.slot = numberOfRows;
+        entry.name = name;
+        this.pendingEntries.add(entry);
+    }
+
+    void pageRemoved(int pageNumber) {
+        this.pendingEntries.add(new Entry(PAGE_REMOVED, pageNumber));
+    }
+
+    void numberingChanged(SwiftGui swiftGui) {
+        Entry entry = new Entry(NUMBERING_CHANGED, 0);
+        entry.slot = swiftGui.isAscending() ? NUMBERING_ASCENDING : swiftGui.isDescending() ? NUMBERING_DESCENDING : 0;
+        this.pendingEntries.add(entry);
+    }
+
+    void itemSet(Page page, int index, ItemStack item) {
+        Entry entry = new Entry(ITEM_SET, pageNumberOf(page));
+        entry.slot = index;
+
+        /* the item is serialized on the writer thread, so it must not be one the caller can still change */
+        entry.item = item == null ? null : item.clone();
+        this.pendingEntries.add(entry);
+    }
+
+    void buttonAdded(Page page, CustomButton button) {
+        if (!GuiSnapshot.isSaved(button)) {
+            return;
+        }
+        Entry entry = new Entry(BUTTON_ADDED, pageNumberOf(page));
+        entry.button = button;
+        this.pendingEntries.add(entry);
+    }
+
+    void buttonRemoved(Page page, int index) {
+        Entry entry = new Entry(BUTTON_REMOVED, pageNumberOf(page));
+        entry.slot = index;
+        this.pendingEntries.add(entry);
+    }
+
+    private int pageNumberOf(Page page) {
+        return this.swiftGui.getPages().indexOf(page) + 1;
+    }
+
+    /**
+     * Writes the recorded changes to the journal as one batch and syncs it if the sync interval has passed.
+     *
+     * @param sync true to sync the journal straight away
+     */
+    private synchronized void write(boolean sync) {
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(batch);
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            CRC32 checksum = new CRC32();
+
+            Entry entry;
+            while ((entry = this.pendingEntries.poll()) != null) {
+
+                /* finish the current generation before moving on to the next */
+                if (entry.type == ROTATE) {
+                    append(batch);
+                    batch.reset();
+                    if (this.channel != null) {
+                        this.channel.force(false);
+                        this.channel.close();
+                        this.channel = null;
+                    }
+                    this.writerGeneration = entry.generation;
+                    continue;
+                }
+
+                payload.reset();
+                try {
+                    encode(entry, new DataOutputStream(payload));
+                } catch (IOException e) {
+                    log("Failed to record a change to page " + entry.pageNumber + " in the journal", e);
+                    continue;
+                }
+                checksum.reset();
+                checksum.update(payload.toByteArray(), 0, payload.size());
+                out.writeInt(payload.size());
+                out.writeInt((int) checksum.getValue());
+                payload.writeTo(out);
+            }
+            out.flush();
+            append(batch);
+
+            long now = System.currentTimeMillis();
+            if (this.channel != null && (sync || now - this.lastSync >= this.syncInterval)) {
+                this.channel.force(false);
+                this.lastSync = now;
+            }
+
+            /* let the server thread save a snapshot once the generation is large */
+            if (!this.closed && this.channel != null && this.channel.size() >= this.compactionThreshold
+                    && this.compactionRequested.compareAndSet(false, true)) {
+                JavaPlugin plugin = SwiftGui.getPluginInstance();
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        if (!this.closed) {
+                            compact();
+                        }
+                    });
+                }
+            }
+        } catch (IOException e) {
+            log("Failed to write the journal " + this.journalFile, e);
+        }
+    }
+
+    /**
+     * Appends the specified bytes to the current generation, opening it if needed.
+     */
+    private void append(ByteArrayOutputStream bytes) throws IOException {
+        if (bytes.size() == 0) {
+            return;
+        }
+
+        if (this.channel == null) {
+            this.channel = FileChannel.open(generationFile(this.journalFile, this.writerGeneration),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (this.channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(14);
+                header.putInt(MAGIC).putShort(VERSION).putLong(this.writerGeneration).flip();
+                while (header.hasRemaining()) {
+                    this.channel.write(header);
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    private static void encode(Entry entry, DataOutputStream out) throws IOException {
+        out.writeByte(entry.type);
+        out.writeInt(entry.pageNumber);
+        switch (entry.type) {
+            case PAGE_ADDED:
+                out.writeInt(entry.slot);
+                out.writeUTF(entry.name);
+                break;
+            case NUMBERING_CHANGED:
+                out.writeByte(entry.slot);
+                break;
+            case ITEM_SET:
+                out.writeShort(entry.slot);
+                if (entry.item == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] item = GuiSnapshot.serializeItem(entry.item);
+                    out.writeInt(item.length);
+                    out.write(item);
+                }
+                break;
+            case BUTTON_ADDED:
+                GuiSnapshot.writeButton(out, entry.button);
+                break;
+            case BUTTON_REMOVED:
+                out.writeShort(entry.slot);
+                break;
+            default:
+                break;
+        }
+        out.flush();
+    }
+
+    /**
+     * Applies every complete record of the specified generation to the specified SwiftGui.
+     */
+    private static void replay(Path file, SwiftGui swiftGui) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 14 || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a SwiftGui journal.");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("The journal " + file + " has version " + version + ", " +
+                    "but only version " + VERSION + " is supported.");
+        }
+        buffer.getLong();
+
+        CRC32 checksum = new CRC32();
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int expectedChecksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            checksum.reset();
+            checksum.update(payload, 0, length);
+            if ((int) checksum.getValue() != expectedChecksum) {
+                break;
+            }
+            apply(new DataInputStream(new ByteArrayInputStream(payload)), swiftGui, file);
+        }
+        if (buffer.hasRemaining()) {
+            log("Ignored " + buffer.remaining() + " bytes at the end of the journal " + file +
+                    " that were not completely written", null);
+        }
+    }
+
+    private static void apply(DataInputStream in, SwiftGui swiftGui, Path file) throws IOException {
+        byte type = in.readByte();
+        int pageNumber = in.readInt();
+
+        if (type == PAGE_ADDED) {
+            int numberOfRows = in.readInt();
+            swiftGui.insertNewPage(pageNumber, numberOfRows, in.readUTF());
+            return;
+        }
+        if (type == NUMBERING_CHANGED) {
+            byte numbering = in.readByte();
+            if (numbering == NUMBERING_ASCENDING) {
+                swiftGui.numberAscendingOrderAll();
+            } else if (numbering == NUMBERING_DESCENDING) {
+                swiftGui.numberDescendingOrderAll();
+            }
+            return;
+        }
+
+        Page page = swiftGui.getPage(pageNumber);
+        if (page == null) {
+            throw new IOException("The journal " + file + " changes page " + pageNumber + ", " +
+                    "which does not exist. It does not belong to this snapshot.");
+        }
+        if (type == PAGE_REMOVED) {
+            page.dispose();
+            return;
+        }
+
+        /* the change goes on top of the saved content of the page */
+        page.loadPendingNow();
+        switch (type) {
+            case ITEM_SET:
+                int slot = in.readUnsignedShort();
+                int length = in.readInt();
+                ItemStack item = null;
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    item = GuiSnapshot.deserializeItem(bytes);
+                }
+                page.setItem(slot, item);
+                break;
+            case BUTTON_ADDED:
+                CustomButton button = GuiSnapshot.readButton(in, swiftGui);
+                if (button != null) {
+                    page.replaceButton(button);
+                }
+                break;
+            case BUTTON_REMOVED:
+                page.removeButton(in.readUnsignedShort());
+                break;
+            default:
+                throw new IOException("Unknown change " + type + " in the journal " + file + ".");
+        }
+    }
+
+    /**
+     * Deletes the generations that are older than the specified generation.
+     */
+    private void deleteGenerationsBefore(long generation) {
+        try {
+            for (long oldGeneration : listGenerations(this.journalFile)) {
+                if (oldGeneration < generation) {
+                    Files.deleteIfExists(generationFile(this.journalFile, oldGeneration));
+                }
+            }
+        } catch (IOException e) {
+            /* whatever is left is deleted the next time the journal is opened */
+            log("Failed to delete old generations of the journal " + this.journalFile, e);
+        }
+    }
+
+    /**
+     * Lists the generations of the specified journal file in order.
+     */
+    private static List<Long> listGenerations(Path journalFile) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        Path directory = journalFile.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return generations;
+        }
+
+        String prefix = journalFile.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                try {
+                    generations.add(Long.parseLong(file.getFileName().toString().substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    /* not a generation, for example a file left by an editor */
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private static Path generationFile(Path journalFile, long generation) {
+        return journalFile.resolveSibling(journalFile.getFileName() + "." + generation);
+    }
+
+    private static void log(String message, Throwable error) {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        if (plugin != null) {
+            plugin.getLogger().log(Level.WARNING, message, error);
+        } else {
+            Bukkit.getLogger().log(Level.WARNING, message, error);
+        }
+    }
+
+    /**
+     * A change that has been recorded but not written yet.
+     */
+    private static final class Entry {
+
+        private final byte type;
+
+        /**
+         * The page number of the changed page.
+         */
+        private final int pageNumber;
+
+        /**
+         * The generation the writer moves on to for {@link #ROTATE}.
+         */
+        private long generation;
+
+        /**
+         * The slot that changed, the number of rows of an added page, or the numbering.
+         */
+        private int slot;
+
+        private String name;
+
+        private ItemStack item;
+
+        private CustomButton button;
+
+        private Entry(byte type, int pageNumber) {
+            this.type = type;
+            this.pageNumber = pageNumber;
+        }
+
+        private static Entry rotate(long nextGeneration) {
+            Entry entry = new Entry(ROTATE, 0);
+            entry.generation = nextGeneration;
+            return entry;
+        }
+    }
+}
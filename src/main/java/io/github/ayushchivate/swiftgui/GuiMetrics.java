@@ -0,0 +1,281 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how a SwiftGui is used and how long its clicks take.
+ * <p>
+ * Every SwiftGui has its own metrics, read with {@link SwiftGui#getMetrics()}.
+ * The counters are striped, so counting is cheap even when it happens often,
+ * and the click durations are kept in {@link LatencyHistogram}s with fixed buckets.
+ * The time the library spends routing a click and the time the button's {@code onClick} takes
+ * are recorded separately, so it can be told which one is slow.
+ * <p>
+ * Metrics are recorded unless they are turned off with {@link SwiftGui#setMetricsEnabled},
+ * and can be written to the log on a timer with {@link #startReporting}.
+ */
+public final class GuiMetrics {
+
+    /**
+     * Determines if metrics are recorded.
+     */
+    private static volatile boolean enabled = true;
+
+    /**
+     * The task that writes the metrics to the log, or null.
+     */
+    private static BukkitTask reportTask;
+
+    /**
+     * The name the metrics are reported with.
+     */
+    private volatile String name;
+
+    private final LongAdder opens = new LongAdder();
+
+    private final LongAdder clicks = new LongAdder();
+
+    private final LongAdder rejectedClicks = new LongAdder();
+
+    private final LongAdder pageBuilds = new LongAdder();
+
+    /**
+     * The number of clicks handled by every type of button.
+     */
+    private final Map<Class<? extends CustomButton>, LongAdder> clicksByButtonType = new ConcurrentHashMap<>();
+
+    /**
+     * The time the library spends routing a click to its button, without the button's {@code onClick}.
+     */
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+
+    /**
+     * The time the {@code onClick} of a button takes.
+     */
+    private final LatencyHistogram handlerLatency = new LatencyHistogram();
+
+    GuiMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets if metrics are recorded.
+     *
+     * @return true if metrics are recorded
+     */
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets if metrics are recorded.
+     *
+     * @param enabled true to record metrics
+     */
+    static void setEnabled(boolean enabled) {
+        GuiMetrics.enabled = enabled;
+    }
+
+    /**
+     * Writes the metrics of every SwiftGui that has not been disposed to the log every time the period passes.
+     * Calling this again replaces the timer.
+     *
+     * @param periodTicks the number of ticks between reports
+     * @throws IllegalStateException    if the plugin instance has not been set
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public static void startReporting(long periodTicks) {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        if (plugin == null) {
+            throw new IllegalStateException("The plugin instance must be set with SwiftGui.setPluginInstance " +
+                    "before metrics are reported.");
+        }
+        if (periodTicks <= 0) {
+            throw new IllegalArgumentException("periodTicks must be positive.");
+        }
+
+        stopReporting();
+        reportTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            for (SwiftGui swiftGui : LeakDetector.getUndisposed()) {
+                plugin.getLogger().info(swiftGui.getMetrics().toString());
+            }
+        }, periodTicks, periodTicks);
+    }
+
+    /**
+     * Stops writing the metrics to the log.
+     */
+    public static void stopReporting() {
+        if (reportTask != null) {
+            reportTask.cancel();
+            reportTask = null;
+        }
+    }
+
+    /**
+     * Gets the name the metrics are reported with.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name the metrics are reported with.
+     *
+     * @param name the name, for example the name of the menu
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the number of times a page was opened by a player.
+     *
+     * @return the number of opens
+     */
+    public long getOpens() {
+        return this.opens.sum();
+    }
+
+    /**
+     * Gets the number of clicks that were handled by a button.
+     *
+     * @return the number of clicks
+     */
+    public long getClicks() {
+        return this.clicks.sum();
+    }
+
+    /**
+     * Gets the number of clicks on a page that were not handled by a button,
+     * because the slot has no button, the clicked item was not the button's or the button was disposed.
+     *
+     * @return the number of rejected clicks
+     */
+    public long getRejectedClicks() {
+        return this.rejectedClicks.sum();
+    }
+
+    /**
+     * Gets the number of times the inventory of a page was created.
+     *
+     * @return the number of page builds
+     */
+    public long getPageBuilds() {
+        return this.pageBuilds.sum();
+    }
+
+    /**
+     * Gets the number of clicks handled by buttons of the specified type.
+     * Subclasses are counted separately.
+     *
+     * @param buttonType the type of button
+     * @return the number of clicks
+     */
+    public long getClicks(Class<? extends CustomButton> buttonType) {
+        LongAdder counter = this.clicksByButtonType.get(buttonType);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Gets the number of clicks handled by every type of button that has been clicked.
+     *
+     * @return a copy of the counts
+     */
+    public Map<Class<? extends CustomButton>, Long> getClicksByButtonType() {
+        Map<Class<? extends CustomButton>, Long> counts = new HashMap<>();
+        for (Map.Entry<Class<? extends CustomButton>, LongAdder> entry : this.clicksByButtonType.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the time the library spends routing a click to its button, without the button's {@code onClick}.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    /**
+     * Gets the time the {@code onClick} of the buttons takes.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram getHandlerLatency() {
+        return handlerLatency;
+    }
+
+    /**
+     * Forgets every count and duration.
+     */
+    public void reset() {
+        this.opens.reset();
+        this.clicks.reset();
+        this.rejectedClicks.reset();
+        this.pageBuilds.reset();
+        this.clicksByButtonType.clear();
+        this.dispatchLatency.reset();
+        this.handlerLatency.reset();
+    }
+
+    void opened() {
+        this.opens.increment();
+    }
+
+    void pageBuilt() {
+        this.pageBuilds.increment();
+    }
+
+    void clickRejected() {
+        this.rejectedClicks.increment();
+    }
+
+    /**
+     * Records a click that was handled by the specified button.
+     *
+     * @param button        the button that handled the click
+     * @param dispatchNanos the time the library spent routing the click
+     * @param handlerNanos  the time the button's {@code onClick} took
+     */
+    void clickHandled(CustomButton button, long dispatchNanos, long handlerNanos) {
+        this.clicks.increment();
+        LongAdder counter = this.clicksByButtonType.get(button.getClass());
+        if (counter == null) {
+            counter = this.clicksByButtonType.computeIfAbsent(button.getClass(), type -> new LongAdder());
+        }
+        counter.increment();
+        this.dispatchLatency.record(dispatchNanos);
+        this.handlerLatency.record(handlerNanos);
+    }
+
+    /**
+     * Describes the metrics in one line, with durations in microseconds.
+     */
+    @Override
+    public String toString() {
+        return this.name + ": opens=" + getOpens() + " clicks=" + getClicks() +
+                " rejected=" + getRejectedClicks() + " builds=" + getPageBuilds() +
+                " dispatch(p50/p99/max)=" + micros(this.dispatchLatency.getPercentileNanos(0.5)) + "/" +
+                micros(this.dispatchLatency.getPercentileNanos(0.99)) + "/" +
+                micros(this.dispatchLatency.getMaxNanos()) + "us" +
+                " onClick(p50/p99/max)=" + micros(this.handlerLatency.getPercentileNanos(0.5)) + "/" +
+                micros(this.handlerLatency.getPercentileNanos(0.99)) + "/" +
+                micros(this.handlerLatency.getMaxNanos()) + "us";
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The listeners and tasks that are shared by every SwiftGui.
+ * They are started together when the plugin instance is set, and setting another plugin instance
+ * stops them and starts them again with the new plugin.
+ */
+final class GuiServices {
+
+    static final ClickDispatcher CLICK_DISPATCHER = new ClickDispatcher();
+
+    static final ViewerRegistry VIEWER_REGISTRY = new ViewerRegistry();
+
+    static final InventoryEvictor INVENTORY_EVICTOR = new InventoryEvictor();
+
+    static final UpdateScheduler UPDATE_SCHEDULER = new UpdateScheduler();
+
+    static final Prefetcher PREFETCHER = new Prefetcher();
+
+    /**
+     * The tasks that run the services, which are empty while the services are stopped.
+     */
+    private static final List<BukkitTask> TASKS = new ArrayList<>();
+
+    private GuiServices() {
+    }
+
+    /**
+     * Starts the services with the specified plugin, stopping them first if they were running.
+     *
+     * @param plugin the plugin the services run with
+     */
+    static void start(JavaPlugin plugin) {
+        stop();
+        Bukkit.getPluginManager().registerEvents(CLICK_DISPATCHER, plugin);
+        Bukkit.getPluginManager().registerEvents(VIEWER_REGISTRY, plugin);
+        TASKS.add(Bukkit.getScheduler().runTaskTimer(plugin, INVENTORY_EVICTOR,
+                InventoryEvictor.PERIOD_IN_TICKS, InventoryEvictor.PERIOD_IN_TICKS));
+        TASKS.add(Bukkit.getScheduler().runTaskTimer(plugin, UPDATE_SCHEDULER, 1, 1));
+        TASKS.add(Bukkit.getScheduler().runTaskTimer(plugin, PREFETCHER, 1, 1));
+    }
+
+    /**
+     * Stops the services. Nothing happens if they are not running.
+     */
+    static void stop() {
+        HandlerList.unregisterAll(CLICK_DISPATCHER);
+        HandlerList.unregisterAll(VIEWER_REGISTRY);
+        for (BukkitTask task : TASKS) {
+            task.cancel();
+        }
+        TASKS.clear();
+    }
+
+    /**
+     * Gets if the services are running.
+     *
+     * @return true if the services have been started and not stopped since
+     */
+    static boolean isRunning() {
+        return !TASKS.isEmpty();
+    }
+}
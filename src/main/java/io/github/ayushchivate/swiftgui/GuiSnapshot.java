@@ -0,0 +1,608 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Saves the pages of a SwiftGui to a file and restores them.
+ * <p>
+ * A snapshot is a compact binary file made of a header, a table of the pages and a record for every page:
+ * <pre>
+ * header      int magic, short version, long journal generation, byte numbering, int number of pages
+ * page table  for every page: int number of rows, UTF name, int offset of its record, int length of its record
+ * records     for every page: short number of items, then for every item: short slot, int length, serialized item
+ *                             short number of buttons, then for every button: byte type, short slot,
+ *                             UTF material, and for new page buttons a byte placement
+ * </pre>
+ * The items are copied on the server thread, but they are serialized and written on another thread,
+ * so saving does not block the tick. The file is written next to the old one and moved over it once it is complete.
+ * <p>
+ * Restoring only reads the page table. The record of every page is read from the file the first time the page
+ * is opened, and its items are deserialized on the server thread when they are put in the page.
+ * The file is kept open until every restored page has read its record. A page that was not opened since it was
+ * restored is saved again from its record as it was read.
+ * <p>
+ * Only the back, forward, new page and delete page buttons are saved. Other buttons must be added again.
+ * <p>
+ * The journal generation is the first generation of a {@link GuiJournal} that is not in the snapshot,
+ * or 0 for snapshots saved without a journal.
+ */
+public final class GuiSnapshot {
+
+    /**
+     * The first bytes of every snapshot, "SGUI".
+     */
+    private static final int MAGIC = 0x53475549;
+
+    /**
+     * The version of the format written by this class.
+     */
+    private static final short VERSION = 2;
+
+    /**
+     * The oldest version of the format that can still be read. Version 1 has no journal generation.
+     */
+    private static final short OLDEST_VERSION = 1;
+
+    private static final byte NUMBERING_NONE = 0;
+    private static final byte NUMBERING_ASCENDING = 1;
+    private static final byte NUMBERING_DESCENDING = 2;
+
+    private static final byte BACK_BUTTON = 1;
+    private static final byte FORWARD_BUTTON = 2;
+    private static final byte NEW_PAGE_BUTTON = 3;
+    private static final byte DELETE_PAGE_BUTTON = 4;
+
+    private static final byte PLACEMENT_END = 0;
+    private static final byte PLACEMENT_BEFORE = 1;
+    private static final byte PLACEMENT_AFTER = 2;
+
+    private GuiSnapshot() {
+    }
+
+    /**
+     * Saves the pages of the specified SwiftGui to the specified file on one of the server's asynchronous worker
+     * threads. This must be called on the server thread.
+     *
+     * @param swiftGui the SwiftGui to be saved
+     * @param file     the file the snapshot is written to
+     * @return a future that completes once the file has been written
+     * @throws IllegalStateException if this is not the server thread
+     * @see #save(SwiftGui, Path, Executor)
+     */
+    public static CompletableFuture<Void> save(@NotNull SwiftGui swiftGui, @NotNull Path file) {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        return save(swiftGui, file, task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    /**
+     * Saves the pages of the specified SwiftGui to the specified file.
+     * The pages are copied straight away, so the SwiftGui can be changed while the file is being written.
+     * This must be called on the server thread.
+     *
+     * @param swiftGui the SwiftGui to be saved
+     * @param file     the file the snapshot is written to
+     * @param executor runs the serializing and writing
+     * @return a future that completes once the file has been written
+     * @throws IllegalStateException if this is not the server thread
+     */
+    public static CompletableFuture<Void> save(@NotNull SwiftGui swiftGui, @NotNull Path file,
+                                               @NotNull Executor executor) {
+        return save(swiftGui, file, executor, 0);
+    }
+
+    /**
+     * Saves the pages of the specified SwiftGui to the specified file with the specified journal generation.
+     *
+     * @param swiftGui          the SwiftGui to be saved
+     * @param file              the file the snapshot is written to
+     * @param executor          runs the serializing and writing
+     * @param journalGeneration the first journal generation that is not in the snapshot
+     * @return a future that completes once the file has been written
+     * @throws IllegalStateException if this is not the server thread
+     */
+    static CompletableFuture<Void> save(SwiftGui swiftGui, Path file, Executor executor, long journalGeneration) {
+        SwiftGui.checkServerThread();
+
+        byte numbering = swiftGui.isAscending() ? NUMBERING_ASCENDING
+                : swiftGui.isDescending() ? NUMBERING_DESCENDING : NUMBERING_NONE;
+
+        /* copy everything that can change on the server thread, the rest is done on the executor */
+        List<PageCopy> copies = new ArrayList<>(swiftGui.size());
+        for (Page page : swiftGui.getPages()) {
+            copies.add(new PageCopy(page));
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(file, journalGeneration, numbering, copies);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Adds the pages saved in the specified file to the end of the specified SwiftGui
+     * and sets its numbering to the saved numbering.
+     * Only the page table is read straight away; every page is filled in the first time it is opened.
+     * This must be called on the server thread.
+     *
+     * @param file     the file the snapshot was written to
+     * @param swiftGui the SwiftGui the pages are added to
+     * @param <T>      the type of the SwiftGui
+     * @return the SwiftGui
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    public static <T extends SwiftGui> T load(@NotNull Path file, @NotNull T swiftGui) throws IOException {
+        read(file, swiftGui);
+        return swiftGui;
+    }
+
+    /**
+     * Adds the pages saved in the specified file to the end of the specified SwiftGui.
+     *
+     * @param file     the file the snapshot was written to
+     * @param swiftGui the SwiftGui the pages are added to
+     * @return the first journal generation that is not in the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    static long read(Path file, SwiftGui swiftGui) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return read(file, channel, swiftGui);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the page table from the specified channel and adds a page for every record.
+     * The channel is closed once every page has read its record.
+     */
+    private static long read(Path file, FileChannel channel, SwiftGui swiftGui) throws IOException {
+
+        /* the stream is not closed, since that would close the channel the records are read from later */
+        long size = channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(file + " is not a SwiftGui snapshot.");
+        }
+        short version = in.readShort();
+        if (version < OLDEST_VERSION || version > VERSION) {
+            throw new IOException("The snapshot " + file + " has version " + version + ", " +
+                    "but only versions " + OLDEST_VERSION + " to " + VERSION + " are supported.");
+        }
+        long journalGeneration = version >= 2 ? in.readLong() : 0;
+        byte numbering = in.readByte();
+        int numberOfPages = in.readInt();
+
+        /* the records start right after the page table */
+        int[] rows = new int[numberOfPages];
+        String[] names = new String[numberOfPages];
+        int[] offsets = new int[numberOfPages];
+        int[] lengths = new int[numberOfPages];
+        for (int i = 0; i < numberOfPages; i++) {
+            rows[i] = in.readInt();
+            names[i] = in.readUTF();
+            offsets[i] = in.readInt();
+            lengths[i] = in.readInt();
+        }
+        long recordsStart = size - in.available();
+        for (int i = 0; i < numberOfPages; i++) {
+            if (offsets[i] < 0 || lengths[i] < 0 || recordsStart + offsets[i] + lengths[i] > size) {
+                throw new IOException("The snapshot " + file + " is truncated.");
+            }
+        }
+
+        if (numbering == NUMBERING_ASCENDING) {
+            swiftGui.numberAscendingOrderAll();
+        } else if (numbering == NUMBERING_DESCENDING) {
+            swiftGui.numberDescendingOrderAll();
+        }
+
+        SnapshotFile snapshotFile = new SnapshotFile(channel, numberOfPages);
+        for (int i = 0; i < numberOfPages; i++) {
+            Page page = swiftGui.addNewPage(rows[i], names[i]);
+            page.loadWhenOpened(new RecordLoader(snapshotFile, recordsStart + offsets[i], lengths[i], swiftGui));
+        }
+
+        return journalGeneration;
+    }
+
+    /**
+     * Writes the snapshot to a file next to the specified file and moves it over the specified file.
+     */
+    private static void write(Path file, long journalGeneration, byte numbering, List<PageCopy> copies)
+            throws IOException {
+
+        /* encode the records first, so their offsets are known when the page table is written */
+        byte[][] records = new byte[copies.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = copies.get(i).encode();
+        }
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeLong(journalGeneration);
+        header.writeByte(numbering);
+        header.writeInt(records.length);
+        int offset = 0;
+        for (int i = 0; i < records.length; i++) {
+            PageCopy copy = copies.get(i);
+            header.writeInt(copy.numberOfRows);
+            header.writeUTF(copy.name);
+            header.writeInt(offset);
+            header.writeInt(records[i].length);
+            offset += records[i].length;
+        }
+        header.flush();
+
+        ByteBuffer[] buffers = new ByteBuffer[records.length + 1];
+        buffers[0] = ByteBuffer.wrap(headerBytes.toByteArray());
+        for (int i = 0; i < records.length; i++) {
+            buffers[i + 1] = ByteBuffer.wrap(records[i]);
+        }
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffers[buffers.length - 1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The parts of a page that are saved, copied on the server thread.
+     */
+    private static final class PageCopy {
+
+        private final int numberOfRows;
+
+        private final String name;
+
+        /**
+         * The loader of a page that has not been loaded since it was restored, or null.
+         * Its record is read on the thread the snapshot is written on.
+         */
+        private final RecordLoader record;
+
+        /**
+         * The items indexed by slot, without the items of buttons.
+         */
+        private final ItemStack[] items;
+
+        /**
+         * The buttons indexed by slot.
+         */
+        private final CustomButton[] buttons;
+
+        private PageCopy(Page page) {
+            this.numberOfRows = page.getNumberOfRows();
+            this.name = page.getName();
+
+            Consumer<PageContent> loader = page.getPendingLoader();
+            if (loader instanceof RecordLoader) {
+                this.record = (RecordLoader) loader;
+                this.items = null;
+                this.buttons = null;
+                return;
+            }
+
+            this.record = null;
+            int slots = this.numberOfRows * 9;
+            this.items = new ItemStack[slots];
+            this.buttons = new CustomButton[slots];
+            for (int i = 0; i < slots; i++) {
+                CustomButton button = page.getButton(i);
+                if (button != null) {
+                    this.buttons[i] = button;
+                } else {
+                    ItemStack item = page.peekItem(i);
+                    this.items[i] = item == null ? null : item.clone();
+                }
+            }
+        }
+
+        /**
+         * Serializes the items and buttons of the page into its record.
+         */
+        private byte[] encode() throws IOException {
+            if (this.record != null) {
+                return this.record.getRecord();
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            int numberOfItems = 0;
+            for (ItemStack item : this.items) {
+                if (item != null) {
+                    numberOfItems++;
+                }
+            }
+            out.writeShort(numberOfItems);
+            for (int slot = 0; slot < this.items.length; slot++) {
+                if (this.items[slot] != null) {
+                    byte[] item = serializeItem(this.items[slot]);
+                    out.writeShort(slot);
+                    out.writeInt(item.length);
+                    out.write(item);
+                }
+            }
+
+            List<CustomButton> savedButtons = new ArrayList<>();
+            for (CustomButton button : this.buttons) {
+                if (button != null && isSaved(button)) {
+                    savedButtons.add(button);
+                }
+            }
+            out.writeShort(savedButtons.size());
+            for (CustomButton button : savedButtons) {
+                writeButton(out, button);
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * A snapshot file that restored pages read their records from.
+     */
+    private static final class SnapshotFile {
+
+        private final FileChannel channel;
+
+        /**
+         * The number of records that have not been read yet. The file is closed once it reaches 0.
+         */
+        private final AtomicInteger unreadRecords;
+
+        private SnapshotFile(FileChannel channel, int numberOfRecords) throws IOException {
+            this.channel = channel;
+            this.unreadRecords = new AtomicInteger(numberOfRecords);
+            if (numberOfRecords == 0) {
+                channel.close();
+            }
+        }
+
+        /**
+         * Reads the record at the specified position. Every record must only be read once successfully.
+         */
+        private byte[] readRecord(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("A SwiftGui snapshot was cut short after it was restored.");
+                }
+            }
+            if (this.unreadRecords.decrementAndGet() == 0) {
+                this.channel.close();
+            }
+            return buffer.array();
+        }
+    }
+
+    /**
+     * Fills in the content of a restored page from its record the first time it is opened.
+     * The items are left serialized, since deserializing them must be done on the server thread.
+     */
+    private static final class RecordLoader implements Consumer<PageContent> {
+
+        private final SnapshotFile file;
+
+        private final long position;
+
+        private final int length;
+
+        private final SwiftGui swiftGui;
+
+        /**
+         * The record once it has been read from the file, or null.
+         */
+        private byte[] record;
+
+        private RecordLoader(SnapshotFile file, long position, int length, SwiftGui swiftGui) {
+            this.file = file;
+            this.position = position;
+            this.length = length;
+            this.swiftGui = swiftGui;
+        }
+
+        /**
+         * Gets the record, reading it from the file the first time.
+         * It is kept, since a failed load and a snapshot being saved can both ask for it again.
+         */
+        private synchronized byte[] getRecord() throws IOException {
+            if (this.record == null) {
+                this.record = this.file.readRecord(this.position, this.length);
+            }
+            return this.record;
+        }
+
+        @Override
+        public void accept(PageContent content) {
+            try {
+                decode(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void decode(PageContent content) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(getRecord()));
+
+            int numberOfItems = in.readUnsignedShort();
+            for (int i = 0; i < numberOfItems; i++) {
+                int slot = in.readUnsignedShort();
+                byte[] item = new byte[in.readInt()];
+                in.readFully(item);
+                content.setSerializedItem(slot, item);
+            }
+
+            int numberOfButtons = in.readUnsignedShort();
+            for (int i = 0; i < numberOfButtons; i++) {
+                CustomButton button = readButton(in, this.swiftGui);
+                if (button != null) {
+                    content.addButton(button);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets if the specified loader fills in a page with the content it was saved with.
+     *
+     * @param loader the loader a page is loaded with when it is opened
+     * @return true if the loader was set when the page was restored
+     */
+    static boolean isSavedContent(Consumer<PageContent> loader) {
+        return loader instanceof RecordLoader;
+    }
+
+    /**
+     * Gets if the specified button can be saved.
+     * Subclasses of the built-in buttons are not saved, since they cannot be made again from their type.
+     *
+     * @param button the button
+     * @return true if the button is one of the built-in buttons
+     */
+    static boolean isSaved(CustomButton button) {
+        return typeOf(button) != 0;
+    }
+
+    /**
+     * Writes the type, index and material of the specified built-in button.
+     *
+     * @param out    the stream the button is written to
+     * @param button the button, which must be saved according to {@link #isSaved}
+     * @throws IOException if the button cannot be written
+     */
+    static void writeButton(DataOutputStream out, CustomButton button) throws IOException {
+        byte type = typeOf(button);
+        out.writeByte(type);
+        out.writeShort(button.getIndex());
+        out.writeUTF(button.getMaterial().name());
+        if (type == NEW_PAGE_BUTTON) {
+            NewPageButton.Placement placement = ((NewPageButton) button).getPlacement();
+            out.writeByte(placement == NewPageButton.Placement.BEFORE_CURRENT_PAGE ? PLACEMENT_BEFORE
+                    : placement == NewPageButton.Placement.AFTER_CURRENT_PAGE ? PLACEMENT_AFTER
+                    : PLACEMENT_END);
+        }
+    }
+
+    /**
+     * Reads a button written by {@link #writeButton} and makes it again for the specified SwiftGui.
+     *
+     * @param in       the stream the button is read from
+     * @param swiftGui the SwiftGui the button is for
+     * @return the button, or null if its material no longer exists
+     * @throws IOException if the button cannot be read
+     */
+    static CustomButton readButton(DataInputStream in, SwiftGui swiftGui) throws IOException {
+        byte type = in.readByte();
+        int slot = in.readUnsignedShort();
+        Material material = Material.getMaterial(in.readUTF());
+        byte placement = type == NEW_PAGE_BUTTON ? in.readByte() : PLACEMENT_END;
+
+        /* a material that no longer exists leaves the slot empty */
+        if (material == null) {
+            return null;
+        }
+        switch (type) {
+            case BACK_BUTTON:
+                return new BackButton(slot, material, swiftGui);
+            case FORWARD_BUTTON:
+                return new ForwardButton(slot, material, swiftGui);
+            case NEW_PAGE_BUTTON:
+                return new NewPageButton(slot, material, swiftGui,
+                        placement == PLACEMENT_BEFORE ? NewPageButton.Placement.BEFORE_CURRENT_PAGE
+                                : placement == PLACEMENT_AFTER ? NewPageButton.Placement.AFTER_CURRENT_PAGE
+                                : null);
+            case DELETE_PAGE_BUTTON:
+                return new DeletePageButton(slot, material, swiftGui);
+            default:
+                throw new IOException("Unknown button type " + type + " in a SwiftGui snapshot.");
+        }
+    }
+
+    /**
+     * Serializes the specified item.
+     *
+     * @param item the item
+     * @return the serialized item
+     * @throws IOException if the item cannot be serialized
+     */
+    static byte[] serializeItem(ItemStack item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeObject(item);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes an item serialized by {@link #serializeItem}.
+     *
+     * @param item the serialized item
+     * @return the item
+     * @throws IOException if the item cannot be deserialized
+     */
+    static ItemStack deserializeItem(byte[] item) throws IOException {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(item))) {
+            return (ItemStack) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("A SwiftGui snapshot has an item that cannot be read.", e);
+        }
+    }
+
+    /**
+     * Gets the type saved for the specified button, or 0 if the button is not saved.
+     */
+    private static byte typeOf(CustomButton button) {
+        Class<?> type = button.getClass();
+        if (type == BackButton.class) {
+            return BACK_BUTTON;
+        } else if (type == ForwardButton.class) {
+            return FORWARD_BUTTON;
+        } else if (type == NewPageButton.class) {
+            return NEW_PAGE_BUTTON;
+        } else if (type == DeletePageButton.class) {
+            return DELETE_PAGE_BUTTON;
+        }
+        return 0;
+    }
+}
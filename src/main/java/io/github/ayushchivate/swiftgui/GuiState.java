@@ -0,0 +1,58 @@
+package io.github.ayushchivate.swiftgui;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An unchangeable copy of the pages of a SwiftGui, which can be read on any thread.
+ * <p>
+ * A SwiftGui and its pages can only be read safely on the server thread, since the server thread changes them.
+ * Other threads read the latest state from {@link SwiftGui#getState()} instead. A state is only made
+ * when it is asked for, and on other threads it is made on the tick after it was asked for,
+ * so it can be behind the SwiftGui by the time between two reads.
+ */
+public final class GuiState {
+
+    /**
+     * The state of a SwiftGui without pages.
+     */
+    static final GuiState EMPTY = new GuiState(new PageState[0]);
+
+    private final List<PageState> pages;
+
+    GuiState(PageState[] pages) {
+        this.pages = Collections.unmodifiableList(Arrays.asList(pages));
+    }
+
+    /**
+     * Gets the state of every page in order.
+     *
+     * @return an unmodifiable list of the pages
+     */
+    public List<PageState> getPages() {
+        return pages;
+    }
+
+    /**
+     * Gets the state of the page with the specified page number.
+     *
+     * @param pageNumber the page number of the page, starting at 1
+     * @return the page, or null if the SwiftGui had no page with that page number
+     */
+    public PageState getPage(int pageNumber) {
+        if (pageNumber < 1 || pageNumber > this.pages.size()) {
+            return null;
+        }
+        return this.pages.get(pageNumber - 1);
+    }
+
+    /**
+     * Gets the number of pages.
+     *
+     * @return the number of pages
+     */
+    public int size() {
+        return this.pages.size();
+    }
+}
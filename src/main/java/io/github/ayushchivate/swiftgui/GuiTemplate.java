@@ -0,0 +1,233 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A SwiftGui that is built once and shown to every player with their own items.
+ * <p>
+ * The pages of a template hold the items and buttons every player sees. They are never opened themselves.
+ * Instead every player has a {@link GuiInstance} that only remembers the slots that are different for them,
+ * and gets a page of their own for a template page when they open it.
+ * That page uses the buttons of the template page, so buttons are only made once,
+ * and it is let go once its inventory is released for being idle.
+ * Since every player shares the pages of a template, {@link NewPageButton}s and {@link DeletePageButton}s,
+ * which would add or remove a page for all of them, cannot be added to it.
+ */
+public class GuiTemplate extends SwiftGui {
+
+    /**
+     * The instance of every player who has one.
+     */
+    private final Map<UUID, GuiInstance> instancesByPlayer = new HashMap<>();
+
+    /**
+     * The instance every page made for a single player belongs to.
+     */
+    private final Map<Page, GuiInstance> instancesByPage = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty GuiTemplate with no pages.
+     */
+    public GuiTemplate() {
+    }
+
+    /**
+     * Creates a GuiTemplate with the specified number of pages.
+     * Each page will have the specified number of rows.
+     *
+     * @param numberOfPages the number of pages to be added to this GuiTemplate
+     * @param numberOfRows  the number of rows in each page that is added
+     */
+    public GuiTemplate(int numberOfPages, int numberOfRows) {
+        super(numberOfPages, numberOfRows);
+    }
+
+    /**
+     * Creates a GuiTemplate with the specified number of pages.
+     * Each page will have the specified number of rows and the specified name.
+     *
+     * @param numberOfPages the number of pages to be added to this GuiTemplate
+     * @param numberOfRows  the number of rows in each page that is added
+     * @param pagesName     the name for all the pages that are added
+     * @throws IllegalArgumentException if the number of rows or the number of pages is negative
+     */
+    public GuiTemplate(int numberOfPages, int numberOfRows, @NotNull String pagesName) {
+        super(numberOfPages, numberOfRows, pagesName);
+    }
+
+    /**
+     * Gets the instance of the specified player, creating it if they do not have one yet.
+     * The instance is kept until it is disposed, so its items are still there the next time the player opens it.
+     *
+     * @param player the player
+     * @return the instance of the player
+     * @throws IllegalStateException if this GuiTemplate has been disposed
+     */
+    public GuiInstance getInstance(Player player) {
+        checkServerThread();
+        if (isDisposed()) {
+            throw new IllegalStateException("This GuiTemplate has been disposed.");
+        }
+        return this.instancesByPlayer.computeIfAbsent(player.getUniqueId(), uuid -> new GuiInstance(this, uuid));
+    }
+
+    /**
+     * Gets the instance of the specified player if they have one.
+     *
+     * @param player the player
+     * @return the instance of the player, or null if they do not have one
+     * @throws IllegalStateException if this is not the server thread
+     */
+    public GuiInstance findInstance(Player player) {
+        checkServerThread();
+        return this.instancesByPlayer.get(player.getUniqueId());
+    }
+
+    /**
+     * Opens the first page of the instance of the specified player.
+     *
+     * @param player the player who's inventory should be opened
+     * @throws IllegalStateException if this GuiTemplate has no pages
+     */
+    @Override
+    public void open(Player player) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player));
+            return;
+        }
+        if (size() == 0) {
+            throw new IllegalStateException("This GuiTemplate has no pages to open.");
+        }
+        open(player, 1);
+    }
+
+    /**
+     * Opens the specified page number of the instance of the specified player.
+     *
+     * @param player     the player who's inventory should be opened
+     * @param pageNumber the page number of the page to be opened
+     * @throws IllegalArgumentException if there is no page with that page number
+     */
+    @Override
+    public void open(Player player, int pageNumber) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player, pageNumber));
+            return;
+        }
+        Page templatePage = getPage(pageNumber);
+        if (templatePage == null) {
+            throw new IllegalArgumentException("This GuiTemplate has no page " + pageNumber + ".");
+        }
+        getInstance(player).getPage(templatePage).openInventory(player);
+    }
+
+    /**
+     * Gets the page of the instance of the specified player with the specified page number,
+     * so the buttons and the prefetcher move players between their own pages.
+     */
+    @Override
+    Page getPageFor(Player player, int pageNumber) {
+        Page templatePage = getPage(pageNumber);
+        if (templatePage == null || isDisposed()) {
+            return null;
+        }
+        return getInstance(player).getPage(templatePage);
+    }
+
+    /**
+     * Rejects the buttons that add or remove pages, since the pages of a template are shared by every player.
+     *
+     * @throws IllegalArgumentException if the button is a {@link NewPageButton} or {@link DeletePageButton}
+     */
+    @Override
+    void checkButton(CustomButton button) {
+        if (button instanceof NewPageButton || button instanceof DeletePageButton) {
+            throw new IllegalArgumentException("A " + button.getClass().getSimpleName() + " cannot be added to a " +
+                    "GuiTemplate, since its pages are shared by every player.");
+        }
+    }
+
+    /**
+     * Gets the page number of the template page the specified page shows.
+     */
+    @Override
+    int getPageNumber(Page page) {
+        Page templatePage = page.getTemplate();
+        return super.getPageNumber(templatePage != null ? templatePage : page);
+    }
+
+    /**
+     * Lets go of the page of a single player once nobody has viewed it for a while.
+     * The instance keeps its items, so the page is made again the next time it is opened.
+     */
+    @Override
+    void inventoryReleased(Page page) {
+        if (page.getTemplate() != null) {
+            page.dispose();
+        }
+    }
+
+    /**
+     * Forgets a page of a single player when it is disposed,
+     * and disposes the pages of every player for a template page when it is removed.
+     */
+    @Override
+    void removePage(Page page) {
+
+        /* a page of a single player is not in the list of pages */
+        if (page.getTemplate() != null) {
+            GuiInstance instance = this.instancesByPage.remove(page);
+            if (instance != null) {
+                instance.pageDisposed(page);
+            }
+            return;
+        }
+
+        super.removePage(page);
+        for (GuiInstance instance : this.instancesByPlayer.values().toArray(new GuiInstance[0])) {
+            instance.templatePageRemoved(page);
+        }
+    }
+
+    /**
+     * Disposes the instance of every player as well.
+     */
+    @Override
+    public void dispose() {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(this::dispose);
+            return;
+        }
+        GuiInstance[] instances = this.instancesByPlayer.values().toArray(new GuiInstance[0]);
+        for (GuiInstance instance : instances) {
+            instance.dispose();
+        }
+        super.dispose();
+    }
+
+    /**
+     * Remembers the instance a page made for a single player belongs to.
+     *
+     * @param page     the page
+     * @param instance the instance the page belongs to
+     */
+    void pageCreated(Page page, GuiInstance instance) {
+        this.instancesByPage.put(page, instance);
+    }
+
+    /**
+     * Forgets the specified instance after it has been disposed.
+     *
+     * @param instance the instance
+     */
+    void instanceDisposed(GuiInstance instance) {
+        this.instancesByPlayer.remove(instance.getViewer(), instance);
+    }
+}
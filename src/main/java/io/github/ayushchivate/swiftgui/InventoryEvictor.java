@@ -0,0 +1,82 @@
+package io.github.ayushchivate.swiftgui;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Releases the inventories of pages that nobody has viewed for a while.
+ * A released page keeps its items and creates a new inventory the next time it is opened.
+ */
+final class InventoryEvictor implements Runnable {
+
+    /**
+     * The number of ticks between two checks for idle inventories.
+     */
+    static final long PERIOD_IN_TICKS = 20;
+
+    /**
+     * The time in milliseconds an inventory must go without viewers before it is released.
+     * A negative value means inventories are never released.
+     */
+    private long idleTimeout = 60_000;
+
+    /**
+     * All pages that currently have an inventory.
+     */
+    private final Set<Page> materializedPages = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    InventoryEvictor() {
+    }
+
+    /**
+     * Sets the time an inventory must go without viewers before it is released.
+     *
+     * @param milliseconds the idle time in milliseconds, or a negative value to never release inventories
+     */
+    void setIdleTimeout(long milliseconds) {
+        this.idleTimeout = milliseconds;
+    }
+
+    /**
+     * Starts watching the specified page because it has created its inventory.
+     *
+     * @param page the page that created its inventory
+     */
+    void track(Page page) {
+        this.materializedPages.add(page);
+    }
+
+    /**
+     * Stops watching the specified page because its inventory was released.
+     *
+     * @param page the page that released its inventory
+     */
+    void untrack(Page page) {
+        this.materializedPages.remove(page);
+    }
+
+    /**
+     * Releases the inventories that have been without viewers for longer than the idle timeout.
+     */
+    @Override
+    public void run() {
+
+        if (this.idleTimeout < 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<Page> iterator = this.materializedPages.iterator();
+        while (iterator.hasNext()) {
+            Page page = iterator.next();
+            if (page.hasViewers()) {
+                page.setLastUsed(now);
+            } else if (now - page.getLastUsed() >= this.idleTimeout) {
+                iterator.remove();
+                page.releaseInventory();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of shared item templates, so pages that show the same item do not each allocate their own copy.
+ * <p>
+ * Putting an item into an inventory copies it, so the same template can be put into any number of slots and pages.
+ * Templates are shared, so they must never be changed; pages hand out copies of the items they hold.
+ */
+public final class ItemCache {
+
+    /**
+     * The most templates of items with meta that are kept, so the cache cannot grow without limit.
+     */
+    private static final int MAX_ITEM_TEMPLATES = 4096;
+
+    /**
+     * The template of a single item of every material.
+     */
+    private static final Map<Material, ItemStack> TEMPLATES_BY_MATERIAL = new ConcurrentHashMap<>();
+
+    /**
+     * The templates of items with a different amount or meta, keyed by an equal item.
+     */
+    private static final Map<ItemStack, ItemStack> TEMPLATES_BY_ITEM = new ConcurrentHashMap<>();
+
+    private ItemCache() {
+    }
+
+    /**
+     * Gets the shared template of a single item of the specified material.
+     *
+     * @param material the material of the item
+     * @return the template, which must not be changed
+     */
+    public static ItemStack of(Material material) {
+        return TEMPLATES_BY_MATERIAL.computeIfAbsent(material, ItemStack::new);
+    }
+
+    /**
+     * Gets the shared template of an item equal to the specified item, including its amount and meta.
+     * Once the cache is full, a copy of the item is returned instead.
+     *
+     * @param item the item
+     * @return the template, which must not be changed
+     */
+    public static ItemStack of(ItemStack item) {
+        ItemStack template = TEMPLATES_BY_ITEM.get(item);
+        if (template != null) {
+            return template;
+        }
+        template = item.clone();
+        if (TEMPLATES_BY_ITEM.size() >= MAX_ITEM_TEMPLATES) {
+            return template;
+        }
+        ItemStack existingTemplate = TEMPLATES_BY_ITEM.putIfAbsent(template, template);
+        return existingTemplate != null ? existingTemplate : template;
+    }
+
+    /**
+     * Removes every template from the cache.
+     * Items already in pages keep the templates they were given.
+     */
+    public static void clear() {
+        TEMPLATES_BY_MATERIAL.clear();
+        TEMPLATES_BY_ITEM.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.ayushchivate.swiftgui;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with a fixed number of buckets, so recording a duration never allocates.
+ * <p>
+ * Bucket {@code i} counts the durations from 2<sup>i</sup> up to 2<sup>i + 1</sup> nanoseconds,
+ * except for the first bucket, which also counts durations below 1 nanosecond,
+ * and the last bucket, which also counts every longer duration.
+ * Percentiles are therefore only accurate to a factor of 2.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets, which covers durations up to about 18 minutes.
+     */
+    public static final int NUMBER_OF_BUCKETS = 40;
+
+    /**
+     * The number of durations in every bucket.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+    /**
+     * The sum of every duration in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * The longest duration in nanoseconds.
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    void record(long nanos) {
+        int bucket = nanos <= 1 ? 0 : Math.min(NUMBER_OF_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+        this.buckets.incrementAndGet(bucket);
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return the number of durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of every recorded duration.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * Gets the average recorded duration.
+     *
+     * @return the average in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return the longest duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Gets the duration that the specified fraction of the recorded durations are shorter than,
+     * rounded up to the end of its bucket.
+     *
+     * @param percentile the fraction, for example 0.99
+     * @return the duration in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1.");
+        }
+
+        long[] counts = getBucketCounts();
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getMaxNanos(), (1L << (i + 1)) - 1);
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Gets the number of durations in every bucket.
+     *
+     * @return a copy of the counts, indexed by bucket
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Forgets every recorded duration.
+     * Durations recorded while resetting may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.totalNanos.reset();
+        this.maxNanos.reset();
+    }
+}
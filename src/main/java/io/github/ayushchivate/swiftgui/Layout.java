@@ -0,0 +1,204 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A pattern of slots to fill with materials, checked once and then put in any number of pages.
+ * <p>
+ * Every slot of a page with up to 6 rows fits in the bits of a long, so a layout keeps one long for every material
+ * whose set bits are the slots filled with it. Putting a layout in a page only walks the set bits,
+ * so layouts are cheap to reuse and are best kept as constants.
+ * <pre>{@code
+ * static final Layout BORDER = Layout.builder(
+ *         "#########",
+ *         "#       #",
+ *         "####+####")
+ *         .map('#', Material.BLACK_STAINED_GLASS_PANE)
+ *         .map('+', Material.LIME_STAINED_GLASS_PANE)
+ *         .build();
+ * }</pre>
+ */
+public final class Layout {
+
+    /**
+     * The most rows a layout can have, which is the most rows of a chest inventory.
+     */
+    public static final int MAX_NUMBER_OF_ROWS = 6;
+
+    /**
+     * The number of rows of the pages this layout is for.
+     */
+    private final int numberOfRows;
+
+    /**
+     * The slots filled with every material, indexed the same as {@link #items}.
+     */
+    private final long[] masks;
+
+    /**
+     * The item every mask is filled with.
+     */
+    private final ItemStack[] items;
+
+    private Layout(int numberOfRows, long[] masks, ItemStack[] items) {
+        this.numberOfRows = numberOfRows;
+        this.masks = masks;
+        this.items = items;
+    }
+
+    /**
+     * Creates a layout from a border pattern where 1 means the slot is filled with the fill material
+     * and 0 means the slot is left untouched.
+     *
+     * @param borderPattern the pattern, with 9 columns in every row
+     * @param fillMaterial  the material that will be used to fill the border
+     * @return the layout
+     * @throws IllegalArgumentException if the pattern has no rows, more than 6 rows, or a row without 9 columns
+     */
+    public static Layout of(int[][] borderPattern, Material fillMaterial) {
+        checkNumberOfRows(borderPattern.length);
+
+        long mask = 0;
+        int index = 0;
+        for (int[] row : borderPattern) {
+            if (row.length != 9) {
+                throw new IllegalArgumentException("borderPattern must have the same number of columns as the page");
+            }
+            for (int value : row) {
+                if (value == 1) {
+                    mask |= 1L << index;
+                }
+                index++;
+            }
+        }
+
+        return new Layout(borderPattern.length, new long[]{mask}, new ItemStack[]{ItemCache.of(fillMaterial)});
+    }
+
+    /**
+     * Starts a layout from rows of 9 characters, one for every slot.
+     * Characters are given materials with {@link Builder#map}, and spaces leave the slot untouched.
+     *
+     * @param rows the rows of the layout
+     * @return a builder for the layout
+     * @throws IllegalArgumentException if there are no rows, more than 6 rows, or a row without 9 characters
+     */
+    public static Builder builder(@NotNull String... rows) {
+        return new Builder(rows);
+    }
+
+    /**
+     * Gets the number of rows of the pages this layout is for.
+     *
+     * @return the number of rows
+     */
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Fills the slots of the specified page according to this layout.
+     * Slots that have buttons are left alone.
+     *
+     * @param page the page, which must have the same number of rows as this layout
+     */
+    void applyTo(Page page) {
+        for (int i = 0; i < this.masks.length; i++) {
+            ItemStack item = this.items[i];
+            for (long mask = this.masks[i]; mask != 0; mask &= mask - 1) {
+                int index = Long.numberOfTrailingZeros(mask);
+                if (page.getButton(index) == null) {
+                    page.setItem(index, item);
+                }
+            }
+        }
+    }
+
+    private static void checkNumberOfRows(int numberOfRows) {
+        if (numberOfRows <= 0 || numberOfRows > MAX_NUMBER_OF_ROWS) {
+            throw new IllegalArgumentException("A layout must have between 1 and " + MAX_NUMBER_OF_ROWS + " rows.");
+        }
+    }
+
+    /**
+     * Gives the characters of a layout their materials.
+     */
+    public static final class Builder {
+
+        private final String[] rows;
+
+        private final Map<Character, Material> materials = new LinkedHashMap<>();
+
+        private Builder(String[] rows) {
+            checkNumberOfRows(rows.length);
+            for (String row : rows) {
+                if (row.length() != 9) {
+                    throw new IllegalArgumentException("Every row of a layout must have 9 characters, but \"" +
+                            row + "\" has " + row.length() + ".");
+                }
+            }
+            this.rows = rows.clone();
+        }
+
+        /**
+         * Fills the slots of the specified character with the specified material.
+         *
+         * @param character the character in the rows
+         * @param material  the material the slots are filled with
+         * @return this builder
+         * @throws IllegalArgumentException if the character is a space
+         */
+        public Builder map(char character, @NotNull Material material) {
+            if (character == ' ') {
+                throw new IllegalArgumentException("Spaces leave slots untouched and cannot be given a material.");
+            }
+            this.materials.put(character, material);
+            return this;
+        }
+
+        /**
+         * Compiles the layout.
+         *
+         * @return the layout
+         * @throws IllegalArgumentException if a character in the rows has not been given a material
+         */
+        public Layout build() {
+
+            /* one mask for every character, in the order they were mapped */
+            Map<Character, Integer> maskIndexes = new LinkedHashMap<>();
+            for (Character character : this.materials.keySet()) {
+                maskIndexes.put(character, maskIndexes.size());
+            }
+            long[] masks = new long[maskIndexes.size()];
+
+            int index = 0;
+            for (String row : this.rows) {
+                for (int column = 0; column < 9; column++) {
+                    char character = row.charAt(column);
+                    if (character != ' ') {
+                        Integer maskIndex = maskIndexes.get(character);
+                        if (maskIndex == null) {
+                            throw new IllegalArgumentException("The character '" + character + "' in the layout " +
+                                    "has not been given a material.");
+                        }
+                        masks[maskIndex] |= 1L << index;
+                    }
+                    index++;
+                }
+            }
+
+            ItemStack[] items = new ItemStack[masks.length];
+            int i = 0;
+            for (Material material : this.materials.values()) {
+                items[i++] = ItemCache.of(material);
+            }
+
+            return new Layout(this.rows.length, masks, items);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps track of every SwiftGui that has been created and reports the ones that were never disposed.
+ * The SwiftGuis are only weakly referenced, so tracking them does not keep them in memory.
+ */
+final class LeakDetector {
+
+    /**
+     * The queue the references of garbage collected SwiftGuis are put in.
+     */
+    private static final ReferenceQueue<SwiftGui> QUEUE = new ReferenceQueue<>();
+
+    /**
+     * The references of all SwiftGuis that have not been disposed.
+     */
+    private static final Set<TrackedGui> TRACKED = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * The number of SwiftGuis that were garbage collected without being disposed.
+     */
+    private static final AtomicInteger LEAKED = new AtomicInteger();
+
+    /**
+     * Determines if the stack trace of where each SwiftGui was created is recorded.
+     */
+    private static volatile boolean recordCreationSites = false;
+
+    private LeakDetector() {
+    }
+
+    /**
+     * Sets if the stack trace of where each SwiftGui was created is recorded and included in leak reports.
+     *
+     * @param record true to record creation sites
+     */
+    static void setRecordCreationSites(boolean record) {
+        recordCreationSites = record;
+    }
+
+    /**
+     * Starts tracking the specified SwiftGui.
+     *
+     * @param swiftGui the SwiftGui that was created
+     * @return the reference that must be marked as disposed when the SwiftGui is disposed
+     */
+    static TrackedGui track(SwiftGui swiftGui) {
+
+        /* report SwiftGuis that were collected since the last time one was created */
+        poll();
+
+        Throwable creationSite = recordCreationSites ? new Throwable("SwiftGui created here") : null;
+        TrackedGui trackedGui = new TrackedGui(swiftGui, creationSite);
+        TRACKED.add(trackedGui);
+        return trackedGui;
+    }
+
+    /**
+     * Reports every SwiftGui that was garbage collected without being disposed
+     * and every SwiftGui that is still in memory but has not been disposed.
+     *
+     * @return the number of SwiftGuis that are still in memory and have not been disposed
+     */
+    static int reportUndisposed() {
+
+        poll();
+
+        int undisposed = 0;
+        for (TrackedGui trackedGui : TRACKED) {
+            if (trackedGui.get() != null) {
+                undisposed++;
+                log("A SwiftGui has not been disposed.", trackedGui.creationSite);
+            }
+        }
+
+        return undisposed;
+    }
+
+    /**
+     * Gets every SwiftGui that is still in memory and has not been disposed.
+     *
+     * @return the SwiftGuis
+     */
+    static List<SwiftGui> getUndisposed() {
+        List<SwiftGui> undisposed = new ArrayList<>();
+        for (TrackedGui trackedGui : TRACKED) {
+            SwiftGui swiftGui = trackedGui.get();
+            if (swiftGui != null) {
+                undisposed.add(swiftGui);
+            }
+        }
+        return undisposed;
+    }
+
+    /**
+     * Counts the SwiftGuis that are still in memory and have not been disposed, without logging them.
+     *
+     * @return the number of SwiftGuis
+     */
+    static int countUndisposed() {
+        poll();
+        int undisposed = 0;
+        for (TrackedGui trackedGui : TRACKED) {
+            if (trackedGui.get() != null) {
+                undisposed++;
+            }
+        }
+        return undisposed;
+    }
+
+    /**
+     * Counts the SwiftGuis that were garbage collected without being disposed.
+     *
+     * @return the number of SwiftGuis
+     */
+    static int countLeaked() {
+        poll();
+        return LEAKED.get();
+    }
+
+    /**
+     * Reports the SwiftGuis that were garbage collected without being disposed.
+     */
+    private static void poll() {
+        Reference<? extends SwiftGui> reference;
+        while ((reference = QUEUE.poll()) != null) {
+            TrackedGui trackedGui = (TrackedGui) reference;
+            if (TRACKED.remove(trackedGui)) {
+                LEAKED.incrementAndGet();
+                log("A SwiftGui was garbage collected without being disposed.", trackedGui.creationSite);
+            }
+        }
+    }
+
+    /**
+     * Logs a leak warning with the plugin's logger.
+     *
+     * @param message      the warning
+     * @param creationSite where the SwiftGui was created, or null if it was not recorded
+     */
+    private static void log(String message, Throwable creationSite) {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        Logger logger = plugin != null ? plugin.getLogger() : Bukkit.getLogger();
+        if (creationSite != null) {
+            logger.log(Level.WARNING, message, creationSite);
+        } else {
+            logger.warning(message + " Enable SwiftGui.setRecordCreationSites to see where it was created.");
+        }
+    }
+
+    /**
+     * A weak reference to a SwiftGui that remembers where it was created.
+     */
+    static final class TrackedGui extends WeakReference<SwiftGui> {
+
+        /**
+         * Where the SwiftGui was created, or null if it was not recorded.
+         */
+        private final Throwable creationSite;
+
+        private TrackedGui(SwiftGui swiftGui, Throwable creationSite) {
+            super(swiftGui, QUEUE);
+            this.creationSite = creationSite;
+        }
+
+        /**
+         * Stops tracking the SwiftGui because it has been disposed.
+         */
+        void disposed() {
+            TRACKED.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * A button of a menu loaded by a {@link MenuLoader} that runs an action when it is clicked.
+ */
+final class MenuButton extends CustomButton {
+
+    /**
+     * What happens when this button is clicked.
+     */
+    private final Consumer<InventoryClickEvent> action;
+
+    /**
+     * Creates a button with the specified index, material, SwiftGui, and action.
+     *
+     * @param index    the index position of the button
+     * @param material the material that represents the button
+     * @param swiftGui the instance of the SwiftGui this button is in
+     * @param action   what happens when the button is clicked
+     */
+    MenuButton(int index, Material material, SwiftGui swiftGui, Consumer<InventoryClickEvent> action) {
+        super(index, material, swiftGui);
+        this.action = action;
+    }
+
+    /**
+     * Runs the action of this button.
+     *
+     * @param event the event that has fired when the button is clicked.
+     */
+    @Override
+    public void onClick(InventoryClickEvent event) {
+        this.action.accept(event);
+    }
+}
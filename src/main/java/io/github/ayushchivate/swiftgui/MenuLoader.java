@@ -0,0 +1,393 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Loads menus from YAML or JSON files and keeps them as {@link GuiTemplate}s, so opening a menu does not build it.
+ * <p>
+ * A menu file has a list of pages, each drawn with a layout of 9 characters per row.
+ * Characters are given materials in {@code items} and buttons in {@code buttons}, and spaces are left empty:
+ * <pre>
+ * numbering: ascending
+ * pages:
+ *   - title: Shop
+ *     rows: 3
+ *     layout:
+ *       - "#########"
+ *       - "#   $   #"
+ *       - "&lt;###x###&gt;"
+ *     items:
+ *       '#': BLACK_STAINED_GLASS_PANE
+ *     buttons:
+ *       '&lt;': {type: back, material: ARROW}
+ *       '&gt;': {type: forward, material: ARROW}
+ *       'x': {type: close, material: BARRIER}
+ *       '$': {type: command, material: EMERALD, command: "shop buy"}
+ * </pre>
+ * The button types are {@code back}, {@code forward}, {@code close}, {@code command}, which makes the player
+ * run the command, and the names of actions registered with {@link #registerAction}.
+ * A menu is shared by every player who opens it, so {@code new-page} and {@code delete-page} buttons,
+ * which would change it for all of them, are not allowed.
+ * <p>
+ * Every file is read and checked once and then kept until it changes.
+ * When a menu is asked for and its file has been modified since it was loaded, it is loaded again
+ * and the old menu is disposed, which closes it for everyone viewing it.
+ */
+public final class MenuLoader {
+
+    /**
+     * The menus that have been loaded, keyed by their file.
+     */
+    private final Map<File, LoadedMenu> menus = new HashMap<>();
+
+    /**
+     * The actions buttons can run, keyed by their name.
+     */
+    private final Map<String, Consumer<InventoryClickEvent>> actions = new HashMap<>();
+
+    /**
+     * Registers an action that buttons with the specified name as their type run when they are clicked.
+     * Menus that are already loaded only use the action once they are loaded again.
+     *
+     * @param name   the name of the action
+     * @param action what happens when a button is clicked
+     * @throws IllegalArgumentException if the name is the name of a built-in button type
+     */
+    public void registerAction(@NotNull String name, @NotNull Consumer<InventoryClickEvent> action) {
+        switch (name) {
+            case "back":
+            case "forward":
+            case "new-page":
+            case "delete-page":
+            case "close":
+            case "command":
+                throw new IllegalArgumentException("\"" + name + "\" is a built-in button type.");
+            default:
+                this.actions.put(name, action);
+        }
+    }
+
+    /**
+     * Gets the menu of the specified file, loading it if it has not been loaded or its file has been modified.
+     * This must be called on the server thread.
+     *
+     * @param file the menu file
+     * @return the menu
+     * @throws IOException                   if the file cannot be read
+     * @throws InvalidConfigurationException if the file is not a valid menu
+     * @throws IllegalStateException         if this is not the server thread
+     */
+    public GuiTemplate getMenu(@NotNull File file) throws IOException, InvalidConfigurationException {
+        SwiftGui.checkServerThread();
+        File key = file.getAbsoluteFile();
+        long lastModified = key.lastModified();
+
+        LoadedMenu loadedMenu = this.menus.get(key);
+        if (loadedMenu != null && loadedMenu.lastModified == lastModified && !loadedMenu.template.isDisposed()) {
+            return loadedMenu.template;
+        }
+
+        /* the old menu is kept if the new one cannot be loaded */
+        GuiTemplate template = load(key);
+        this.menus.put(key, new LoadedMenu(template, lastModified));
+        if (loadedMenu != null) {
+            loadedMenu.template.dispose();
+        }
+        return template;
+    }
+
+    /**
+     * Opens the first page of the menu of the specified file for the specified player.
+     *
+     * @param player the player who's inventory should be opened
+     * @param file   the menu file
+     * @throws IOException                   if the file cannot be read
+     * @throws InvalidConfigurationException if the file is not a valid menu
+     * @throws IllegalStateException         if this is not the server thread
+     */
+    public void open(@NotNull Player player, @NotNull File file) throws IOException, InvalidConfigurationException {
+        getMenu(file).open(player);
+    }
+
+    /**
+     * Disposes every loaded menu and forgets it, so they are all loaded again the next time they are asked for.
+     */
+    public void clear() {
+        for (LoadedMenu loadedMenu : this.menus.values()) {
+            loadedMenu.template.dispose();
+        }
+        this.menus.clear();
+    }
+
+    /**
+     * Reads, checks and builds the menu of the specified file.
+     */
+    private GuiTemplate load(File file) throws IOException, InvalidConfigurationException {
+
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.load(file);
+
+        List<Map<?, ?>> pages = configuration.getMapList("pages");
+        if (pages.isEmpty()) {
+            throw invalid(file, "pages", "must have at least one page");
+        }
+
+        /* check every page before building any of them */
+        List<PageDefinition> definitions = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            definitions.add(parsePage(file, "pages[" + i + "]", pages.get(i)));
+        }
+
+        GuiTemplate template = new GuiTemplate();
+        String numbering = configuration.getString("numbering", "none");
+        if (numbering.equalsIgnoreCase("ascending")) {
+            template.numberAscendingOrderAll();
+        } else if (numbering.equalsIgnoreCase("descending")) {
+            template.numberDescendingOrderAll();
+        } else if (!numbering.equalsIgnoreCase("none")) {
+            throw invalid(file, "numbering", "must be ascending, descending or none");
+        }
+
+        for (PageDefinition definition : definitions) {
+            Page page = template.addNewPage(definition.numberOfRows, definition.title);
+            if (definition.layout != null) {
+                page.fillBorder(definition.layout);
+            }
+            for (ButtonDefinition button : definition.buttons) {
+                page.addCustomButton(button.create(template));
+            }
+        }
+
+        return template;
+    }
+
+    private PageDefinition parsePage(File file, String path, Map<?, ?> page) throws InvalidConfigurationException {
+
+        Object title = page.get("title");
+        Object rows = page.get("rows");
+        if (!(rows instanceof Integer) || (Integer) rows < 1 || (Integer) rows > Layout.MAX_NUMBER_OF_ROWS) {
+            throw invalid(file, path + ".rows", "must be a number from 1 to " + Layout.MAX_NUMBER_OF_ROWS);
+        }
+        int numberOfRows = (Integer) rows;
+        PageDefinition definition = new PageDefinition(title == null ? "" : title.toString(), numberOfRows);
+
+        Object layoutValue = page.get("layout");
+        if (layoutValue == null) {
+            return definition;
+        }
+        if (!(layoutValue instanceof List) || ((List<?>) layoutValue).size() != numberOfRows) {
+            throw invalid(file, path + ".layout", "must be a list of " + numberOfRows + " rows");
+        }
+        List<?> layoutRows = (List<?>) layoutValue;
+
+        Map<Character, Material> items = parseItems(file, path + ".items", page.get("items"));
+        Map<Character, Map<?, ?>> buttons = parseButtons(file, path + ".buttons", page.get("buttons"));
+
+        /* buttons are taken out of the layout, so only items are left in it */
+        String[] itemRows = new String[numberOfRows];
+        for (int row = 0; row < numberOfRows; row++) {
+            String layoutRow = String.valueOf(layoutRows.get(row));
+            if (layoutRow.length() != 9) {
+                throw invalid(file, path + ".layout[" + row + "]", "must have 9 characters");
+            }
+            char[] itemRow = layoutRow.toCharArray();
+            for (int column = 0; column < 9; column++) {
+                Map<?, ?> button = buttons.get(itemRow[column]);
+                if (button != null) {
+                    String buttonPath = path + ".buttons." + itemRow[column];
+                    definition.buttons.add(parseButton(file, buttonPath, row * 9 + column, button));
+                    itemRow[column] = ' ';
+                } else if (itemRow[column] != ' ' && !items.containsKey(itemRow[column])) {
+                    throw invalid(file, path + ".layout[" + row + "]",
+                            "uses '" + itemRow[column] + "', which is not in items or buttons");
+                }
+            }
+            itemRows[row] = new String(itemRow);
+        }
+
+        Layout.Builder layout = Layout.builder(itemRows);
+        for (Map.Entry<Character, Material> item : items.entrySet()) {
+            layout.map(item.getKey(), item.getValue());
+        }
+        definition.layout = layout.build();
+
+        return definition;
+    }
+
+    private Map<Character, Material> parseItems(File file, String path, Object value)
+            throws InvalidConfigurationException {
+        Map<Character, Material> items = new HashMap<>();
+        if (value == null) {
+            return items;
+        }
+        if (!(value instanceof Map)) {
+            throw invalid(file, path, "must map characters to materials");
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            char character = parseCharacter(file, path, entry.getKey());
+            items.put(character, parseMaterial(file, path + "." + character, entry.getValue()));
+        }
+        return items;
+    }
+
+    private Map<Character, Map<?, ?>> parseButtons(File file, String path, Object value)
+            throws InvalidConfigurationException {
+        Map<Character, Map<?, ?>> buttons = new HashMap<>();
+        if (value == null) {
+            return buttons;
+        }
+        if (!(value instanceof Map)) {
+            throw invalid(file, path, "must map characters to buttons");
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            char character = parseCharacter(file, path, entry.getKey());
+            if (!(entry.getValue() instanceof Map)) {
+                throw invalid(file, path + "." + character, "must have a type and a material");
+            }
+            buttons.put(character, (Map<?, ?>) entry.getValue());
+        }
+        return buttons;
+    }
+
+    private ButtonDefinition parseButton(File file, String path, int index, Map<?, ?> button)
+            throws InvalidConfigurationException {
+
+        Material material = parseMaterial(file, path + ".material", button.get("material"));
+        String type = String.valueOf(button.get("type"));
+        switch (type) {
+            case "back":
+            case "forward":
+            case "close":
+                return new ButtonDefinition(type, index, material, null);
+            case "new-page":
+            case "delete-page":
+                throw invalid(file, path + ".type", "\"" + type + "\" cannot be used in a menu, " +
+                        "since it would change the menu for every player who opens it");
+            case "command":
+                Object command = button.get("command");
+                if (command == null) {
+                    throw invalid(file, path + ".command", "must be set for a command button");
+                }
+                return new ButtonDefinition(type, index, material, command.toString());
+            default:
+                if (!this.actions.containsKey(type)) {
+                    throw invalid(file, path + ".type", "\"" + type + "\" is not a button type or registered action");
+                }
+                return new ButtonDefinition(type, index, material, null);
+        }
+    }
+
+    private static char parseCharacter(File file, String path, Object key) throws InvalidConfigurationException {
+        String character = String.valueOf(key);
+        if (character.length() != 1 || character.charAt(0) == ' ') {
+            throw invalid(file, path, "\"" + character + "\" must be a single character that is not a space");
+        }
+        return character.charAt(0);
+    }
+
+    private static Material parseMaterial(File file, String path, Object value) throws InvalidConfigurationException {
+        Material material = value == null ? null : Material.matchMaterial(value.toString());
+        if (material == null) {
+            throw invalid(file, path, "\"" + value + "\" is not a material");
+        }
+        return material;
+    }
+
+    private static InvalidConfigurationException invalid(File file, String path, String problem) {
+        return new InvalidConfigurationException(file.getName() + ": " + path + " " + problem + ".");
+    }
+
+    /**
+     * A page of a menu file that has been checked but not built.
+     */
+    private static final class PageDefinition {
+
+        private final String title;
+
+        private final int numberOfRows;
+
+        private Layout layout;
+
+        private final List<ButtonDefinition> buttons = new ArrayList<>();
+
+        private PageDefinition(String title, int numberOfRows) {
+            this.title = title;
+            this.numberOfRows = numberOfRows;
+        }
+    }
+
+    /**
+     * A button of a menu file that has been checked but not built.
+     */
+    private final class ButtonDefinition {
+
+        private final String type;
+
+        private final int index;
+
+        private final Material material;
+
+        private final String command;
+
+        private ButtonDefinition(String type, int index, Material material, String command) {
+            this.type = type;
+            this.index = index;
+            this.material = material;
+            this.command = command;
+        }
+
+        private CustomButton create(SwiftGui swiftGui) {
+            switch (this.type) {
+                case "back":
+                    return new BackButton(this.index, this.material, swiftGui);
+                case "forward":
+                    return new ForwardButton(this.index, this.material, swiftGui);
+                case "close":
+                    return new MenuButton(this.index, this.material, swiftGui, event -> {
+                        /* the inventory cannot be closed while its click is being handled */
+                        HumanEntity viewer = event.getWhoClicked();
+                        Bukkit.getScheduler().runTask(SwiftGui.getPluginInstance(), viewer::closeInventory);
+                    });
+                case "command":
+                    String command = this.command;
+                    return new MenuButton(this.index, this.material, swiftGui, event -> {
+                        if (event.getWhoClicked() instanceof Player) {
+                            ((Player) event.getWhoClicked()).performCommand(command);
+                        }
+                    });
+                default:
+                    return new MenuButton(this.index, this.material, swiftGui, MenuLoader.this.actions.get(this.type));
+            }
+        }
+    }
+
+    /**
+     * A menu that has been loaded and the modification time of its file when it was loaded.
+     */
+    private static final class LoadedMenu {
+
+        private final GuiTemplate template;
+
+        private final long lastModified;
+
+        private LoadedMenu(GuiTemplate template, long lastModified) {
+            this.template = template;
+            this.lastModified = lastModified;
+        }
+    }
+}
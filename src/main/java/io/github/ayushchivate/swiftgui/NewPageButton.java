@@ -1,23 +1,52 @@
 package io.github.ayushchivate.swiftgui;
 
 import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
 
-import java.util.Map;
-
 public class NewPageButton extends CustomButton {
 
+    /**
+     * Where the new page is put in relation to the page this button is in,
+     * or null if the new page is put after the last page.
+     */
+    private final Placement placement;
+
     /**
      * Creates a page with the specified index, material, and SwiftGui.
+     * The new page is put after the last page.
      *
      * @param index    the index position of the button
      * @param material the material that represents the button
      * @param swiftGui the instance of the SwiftGui this button is in
      */
     public NewPageButton(int index, Material material, SwiftGui swiftGui) {
+        this(index, material, swiftGui, null);
+    }
+
+    /**
+     * Creates a page with the specified index, material, SwiftGui, and placement.
+     *
+     * @param index     the index position of the button
+     * @param material  the material that represents the button
+     * @param swiftGui  the instance of the SwiftGui this button is in
+     * @param placement whether the new page is put before or after the page this button is in,
+     *                  or null to put it after the last page
+     */
+    public NewPageButton(int index, Material material, SwiftGui swiftGui, Placement placement) {
         super(index, material, swiftGui);
+        this.placement = placement;
+    }
+
+    /**
+     * Gets where the new page is put in relation to the page this button is in.
+     *
+     * @return the placement, or null if the new page is put after the last page
+     */
+    Placement getPlacement() {
+        return placement;
     }
 
     /**
@@ -28,27 +57,40 @@ public class NewPageButton extends CustomButton {
     @Override
     public void onClick(InventoryClickEvent event) {
 
-        Player player;
-
-        try {
-            /* get the player */
-            player = (Player) event.getWhoClicked();
-        } catch (ClassCastException e) {
+        /* get the player */
+        HumanEntity whoClicked = event.getWhoClicked();
+        if (!(whoClicked instanceof Player)) {
             return;
         }
-
-        /* get the map of pages*/
-        Map<Integer, Page> pages = this.swiftGui.getPages();
+        Player player = (Player) whoClicked;
 
         /* get the number of rows this inventory has */
         Inventory clickedInventory = event.getClickedInventory();
         if (clickedInventory == null) return;
         int rows = clickedInventory.getSize() / 9;
 
+        /* work out the page number of the new page */
+        int pageNumber;
+        if (this.placement == Placement.BEFORE_CURRENT_PAGE) {
+            pageNumber = this.page.getPageNumber();
+        } else if (this.placement == Placement.AFTER_CURRENT_PAGE) {
+            pageNumber = this.page.getPageNumber() + 1;
+        } else {
+            pageNumber = this.swiftGui.size() + 1;
+        }
+
         /* add new page to the SwiftGui */
-        Page page = this.swiftGui.addNewPage(rows, this.page.getName());
+        this.swiftGui.insertNewPage(pageNumber, rows, this.page.getName());
+
+        /* open the new page for the player, which is the player's own page for a GuiTemplate */
+        this.swiftGui.openPage(player, this.page, pageNumber);
+    }
 
-        /* open the previous page for the player */
-        page.openInventory(player);
+    /**
+     * Where a new page is put in relation to the page the button is in.
+     */
+    public enum Placement {
+        BEFORE_CURRENT_PAGE,
+        AFTER_CURRENT_PAGE
     }
 }
@@ -2,20 +2,38 @@ package io.github.ayushchivate.swiftgui;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
 /**
  * Represents a page in a SwiftGui
+ * <p>
+ * Like its SwiftGui, a page is changed on the server thread. Its methods that change it without returning anything
+ * can be called on other threads as well, and are then made on the server thread on the next tick.
  */
 public class Page {
 
     /**
-     * A class that represents a page.
+     * The node that holds this page in its SwiftGui's {@link PageList}, or null if it is not in one.
      */
-    private int pageNumber;
+    PageList.Node node;
 
     /**
      * The number of rows the inventory has in this page.
@@ -23,20 +41,111 @@ public class Page {
     private final int NUMBER_OF_ROWS;
 
     /**
-     * The name of the inventory in this page.
+     * The name of the inventory in this page, without its page number.
      */
-    private String name;
+    private final String name;
 
     /**
-     * The inventory of this page.
+     * The inventory of this page, or null if it has not been opened yet or has been released.
      */
     private Inventory inventory;
 
+    /**
+     * The title the inventory of this page was created with.
+     */
+    private String inventoryTitle;
+
+    /**
+     * The items of this page indexed by the slot they are in.
+     * They are copied into the inventory when it is created and copied back when it is released.
+     */
+    private final ItemStack[] contents;
+
+    /**
+     * A bitset of the slots whose item in {@link #contents} still has to be put into the inventory
+     * while it is being viewed. They are put in by the {@link UpdateScheduler}.
+     */
+    private final long[] dirtySlots;
+
+    /**
+     * The players who are viewing this page, kept up to date by the {@link ViewerRegistry}.
+     */
+    private final Set<Player> viewers = new HashSet<>();
+
+    /**
+     * The last time in milliseconds the inventory of this page was opened or seen with viewers.
+     */
+    private long lastUsed;
+
     /**
      * Instance of the SwiftGui.
      */
     private final SwiftGui SWIFT_GUI;
 
+    /**
+     * The page of a {@link GuiTemplate} this page shows to a single player, or null if this is not such a page.
+     * The buttons of the template page handle the clicks on this page.
+     */
+    private Page template;
+
+    /**
+     * The holder of the inventory of this page.
+     */
+    private final PageHolder holder = new PageHolder(this);
+
+    /**
+     * The buttons of this page indexed by the slot they are in.
+     */
+    private final CustomButton[] buttons;
+
+    /**
+     * Determines if this page has been disposed.
+     */
+    private boolean disposed = false;
+
+    /**
+     * The items shown while the content of this page is loading,
+     * or null to use the placeholder of the SwiftGui.
+     */
+    private PageContent loadingPlaceholder;
+
+    /**
+     * Counts the loads of this page, so a load that finishes after a newer one was started is thrown away.
+     */
+    private int loadCount = 0;
+
+    /**
+     * Fills in the content of this page the first time it is opened, or null if it has nothing left to load.
+     */
+    private Consumer<PageContent> pendingLoader;
+
+    /**
+     * The load of the pending loader that is running, or null. The loader is only forgotten once its content
+     * is in this page, and only the latest load may change what is pending when it finishes.
+     */
+    private CompletableFuture<Void> pendingLoad;
+
+    /**
+     * Determines if changes to this page are recorded in the journal of its SwiftGui.
+     * Loaded content and placeholders are not recorded, since they are loaded again.
+     */
+    private boolean recordingChanges = true;
+
+    /**
+     * Determines if the items players moved are going to be taken into this page on the next tick.
+     */
+    private boolean movedItemsPending = false;
+
+    /**
+     * Copies of the items of this page for its {@link PageState}, or null if the page changed since they were made.
+     */
+    private ItemStack[] itemsState;
+
+    /**
+     * The buttons of this page for its {@link PageState}, made together with {@link #itemsState}.
+     */
+    private CustomButton[] buttonsState;
+
     /**
      * The default index of the back button.
      */
@@ -63,29 +172,27 @@ public class Page {
 //    private boolean inventoryHasNotBeenInitialized;
 
     /**
-     * Creates a page with the specified page number, number of rows, and name.
+     * Creates a page with the specified number of rows and name.
+     * The page number of the page is its position in the SwiftGui once it is added to it.
      *
-     * @param pageNumber     the page number of this page
      * @param NUMBER_OF_ROWS the number of rows of this page
      * @param name           the name of this page
      */
-    Page(int pageNumber, int NUMBER_OF_ROWS, @NotNull String name, SwiftGui SWIFT_GUI) {
+    Page(int NUMBER_OF_ROWS, @NotNull String name, SwiftGui SWIFT_GUI) {
 
-        /* make sure the page number and number of rows is positive */
-        if (pageNumber <= 0) {
-            throw new IllegalArgumentException("pageNumber cannot be less than or equal to zero. " +
-                    "Must be a positive integer");
-        } else if (NUMBER_OF_ROWS <= 0) {
+        /* make sure the number of rows is positive */
+        if (NUMBER_OF_ROWS <= 0) {
             throw new IllegalArgumentException("numberOfRows cannot be less than or equal to zero. " +
                     "Must be a positive multiple of 9.");
         }
 
         /* initialize fields */
-        this.pageNumber = pageNumber;
         this.NUMBER_OF_ROWS = NUMBER_OF_ROWS;
         this.name = name;
-        this.inventory = Bukkit.createInventory(null, NUMBER_OF_ROWS * 9, name);
         this.SWIFT_GUI = SWIFT_GUI;
+        this.buttons = new CustomButton[NUMBER_OF_ROWS * 9];
+        this.contents = new ItemStack[NUMBER_OF_ROWS * 9];
+        this.dirtySlots = new long[(NUMBER_OF_ROWS * 9 + 63) / 64];
 //        this.inventoryHasNotBeenInitialized = name.equals("");
 
         /* initialize default indexes */
@@ -95,6 +202,17 @@ public class Page {
         this.DEFAULT_DELETE_PAGE_BUTTON_INDEX = this.NUMBER_OF_ROWS * 9 - 6;
     }
 
+    /**
+     * Creates a page that shows the specified page of a {@link GuiTemplate} to a single player.
+     * The page has the same number of rows and name as the template page and uses its buttons.
+     *
+     * @param template the template page
+     */
+    Page(Page template) {
+        this(template.NUMBER_OF_ROWS, template.name, template.SWIFT_GUI);
+        this.template = template;
+    }
+
     /**
      * Get the name of this page.
      *
@@ -105,23 +223,904 @@ public class Page {
     }
 
     /**
-     * Gets the page number of this page.
+     * Gets the title of this page's inventory.
+     * If the SwiftGui numbers its pages, a dash followed by the page number is appended to the page name.
+     * The title is worked out from the current page number, so it is always up to date.
+     *
+     * @return the title of this page's inventory
+     */
+    public String getTitle() {
+        return getTitle(getPageNumber());
+    }
+
+    /**
+     * Gets the title of this page's inventory if it had the specified page number.
+     *
+     * @param pageNumber the page number
+     * @return the title
+     */
+    private String getTitle(int pageNumber) {
+        if (this.SWIFT_GUI.isAscending()) {
+            return this.name + " - " + pageNumber;
+        } else if (this.SWIFT_GUI.isDescending()) {
+            return this.name + " - " + (this.SWIFT_GUI.size() - pageNumber + 1);
+        }
+        return this.name;
+    }
+
+    /**
+     * Gets the number of rows of this page.
      *
-     * @return the page number of this page
+     * @return the number of rows of this page
+     */
+    public int getNumberOfRows() {
+        return NUMBER_OF_ROWS;
+    }
+
+    /**
+     * Gets the page number of this page, which is its position in its SwiftGui starting at 1.
+     *
+     * @return the page number of this page, or 0 if it is no longer in its SwiftGui
      */
     public int getPageNumber() {
-        return pageNumber;
+        return this.SWIFT_GUI.getPageNumber(this);
+    }
+
+    /**
+     * Gets if this page has been disposed.
+     *
+     * @return true if this page has been disposed
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Deletes this page from its SwiftGui, disposes all of its buttons and closes it for everyone viewing it.
+     * A disposed page can no longer be opened and its buttons no longer receive clicks.
+     */
+    public void dispose() {
+
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(this::dispose);
+            return;
+        }
+
+        if (this.disposed) {
+            return;
+        }
+        this.disposed = true;
+
+        /* take this page out of its SwiftGui if it is still in it */
+        this.SWIFT_GUI.removePage(this);
+
+        /* dispose all buttons */
+        for (int i = 0; i < this.buttons.length; i++) {
+            CustomButton button = this.buttons[i];
+            if (button != null) {
+                this.buttons[i] = null;
+                button.setPage(null);
+                button.dispose();
+            }
+        }
+
+        /* close the inventory for everyone viewing it */
+        if (this.inventory == null) {
+            return;
+        }
+        GuiServices.INVENTORY_EVICTOR.untrack(this);
+        GuiServices.UPDATE_SCHEDULER.cancel(this);
+        List<HumanEntity> viewers = new ArrayList<>(this.inventory.getViewers());
+        if (viewers.isEmpty()) {
+            return;
+        }
+        if (SwiftGui.getPluginInstance().isEnabled()) {
+            /* the page may be disposed while one of its clicks is being handled, so close it on the next tick */
+            Bukkit.getScheduler().runTask(SwiftGui.getPluginInstance(), () -> closeInventory(viewers));
+        } else {
+            closeInventory(viewers);
+        }
+    }
+
+    /**
+     * Closes the inventory of this page for the specified viewers if they are still viewing it.
+     *
+     * @param viewers the viewers of this page
+     */
+    private void closeInventory(List<HumanEntity> viewers) {
+        for (HumanEntity viewer : viewers) {
+            if (this.inventory.getViewers().contains(viewer)) {
+                viewer.closeInventory();
+            }
+        }
+    }
+
+    /**
+     * Makes sure this page has not been disposed.
+     *
+     * @throws IllegalStateException if this page has been disposed
+     */
+    private void checkNotDisposed() {
+        if (this.disposed) {
+            throw new IllegalStateException("Page \"" + this.name + "\" has been disposed.");
+        }
+    }
+
+    /**
+     * Gets the button at the specified index of this page.
+     * A page that shows a {@link GuiTemplate} page to a single player has the buttons of the template page.
+     *
+     * @param index the index of the button
+     * @return the button at the index, or null if there is no button at the index
+     * @throws IllegalArgumentException if the index is outside of this page
+     * @throws IllegalStateException    if this is not the server thread; other threads use {@link PageState}
+     */
+    public CustomButton getButton(int index) {
+        SwiftGui.checkServerThread();
+        checkIndex(index);
+        CustomButton button = this.buttons[index];
+        if (button == null && this.template != null) {
+            return this.template.getButton(index);
+        }
+        return button;
+    }
+
+    /**
+     * Gets the page of a {@link GuiTemplate} this page shows to a single player.
+     *
+     * @return the template page, or null if this page does not show a template page
+     */
+    Page getTemplate() {
+        return template;
+    }
+
+    /**
+     * Removes the button at the specified index of this page.
+     * The button's item is removed from the inventory as well.
+     *
+     * @param index the index of the button
+     * @return the button that was removed, or null if there was no button at the index
+     * @throws IllegalArgumentException if the index is outside of this page
+     * @throws IllegalStateException    if this is not the server thread; other threads use {@link SwiftGui#call}
+     *                                  or {@link CustomButton#dispose}
+     */
+    public CustomButton removeButton(int index) {
+        SwiftGui.checkServerThread();
+        checkIndex(index);
+        loadSavedContent();
+
+        CustomButton button = this.buttons[index];
+        if (button == null) {
+            return null;
+        }
+
+        /* clear the slot and detach the button from this page */
+        GuiJournal journal = getJournal();
+        if (journal != null) {
+            journal.buttonRemoved(this, index);
+        }
+        this.buttons[index] = null;
+        setItem(index, null);
+        button.setPage(null);
+
+        return button;
+    }
+
+    /**
+     * Puts the specified button on this page, replacing the button that is already at its index.
+     *
+     * @param customButton the button to be put on this page
+     * @return the button that was replaced, or null if the index was empty
+     * @throws IllegalArgumentException if the button's index is outside of this page
+     * @throws IllegalStateException    if this is not the server thread; other threads use {@link SwiftGui#call}
+     */
+    public CustomButton replaceButton(CustomButton customButton) {
+        SwiftGui.checkServerThread();
+        CustomButton replacedButton = removeButton(customButton.getIndex());
+        addButton(customButton);
+        return replacedButton;
+    }
+
+    /**
+     * Gets the item in the specified slot of this page.
+     *
+     * Changing the returned item does not change this page.
+     *
+     * @param index the index of the slot
+     * @return the item in the slot, or null if the slot is empty
+     * @throws IllegalArgumentException if the index is outside of this page
+     * @throws IllegalStateException    if this is not the server thread; other threads use {@link PageState}
+     */
+    public ItemStack getItem(int index) {
+        SwiftGui.checkServerThread();
+        checkIndex(index);
+
+        /* the inventory's item is live and the remembered item may be a template shared with other pages */
+        ItemStack item = this.inventory != null && !isDirty(index) ? this.inventory.getItem(index)
+                : this.contents[index];
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * Gets the item in the specified slot of this page without copying it.
+     * The item must not be changed.
+     *
+     * @param index the index of the slot
+     * @return the item in the slot, or null if the slot is empty
+     */
+    ItemStack peekItem(int index) {
+        if (this.inventory != null && !isDirty(index)) {
+            return this.inventory.getItem(index);
+        }
+        return this.contents[index];
+    }
+
+    /**
+     * Gets the item this page last put in the specified slot, without copying it or asking the inventory.
+     * Once pending changes are sent it is the item the slot shows: players cannot move the items of buttons,
+     * and the items they move in other slots are taken into this page on the next tick.
+     * The item must not be changed.
+     *
+     * @param index the index of the slot
+     * @return the item, or null if the slot is empty
+     */
+    ItemStack getRememberedItem(int index) {
+        return this.contents[index];
+    }
+
+    /**
+     * Puts the specified item in the specified slot of this page.
+     * If the inventory of this page has not been created yet, only the item is remembered.
+     * If the inventory is being viewed, the slot is marked as changed and its item is put into the inventory
+     * by the update scheduler within its budget, so the viewers may see the change a few ticks later,
+     * and only the latest item of every changed slot is sent to them.
+     * Nothing is sent if the slot already has an equal item.
+     * The item is remembered without being copied, so it can be a shared template from {@link ItemCache}
+     * but must not be changed afterwards.
+     *
+     * @param index the index of the slot
+     * @param item  the item to put in the slot, or null to empty the slot
+     * @throws IllegalArgumentException if the index is outside of this page
+     */
+    public void setItem(int index, ItemStack item) {
+        checkIndex(index);
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(() -> setItem(index, item));
+            return;
+        }
+        loadSavedContent();
+        stateChanged();
+
+        GuiJournal journal = getJournal();
+        if (journal != null) {
+            journal.itemSet(this, index, item);
+        }
+
+        if (this.inventory == null) {
+            this.contents[index] = item;
+            return;
+        }
+
+        /* skip slots that already show an equal item */
+        ItemStack currentItem = isDirty(index) ? this.contents[index] : this.inventory.getItem(index);
+        this.contents[index] = item;
+        if (Objects.equals(currentItem, item)) {
+            return;
+        }
+
+        /* nobody is sent the change of an inventory without viewers, so it can be made straight away */
+        if (!hasViewers()) {
+            clearDirty(index);
+            this.inventory.setItem(index, item);
+            return;
+        }
+
+        markDirty(index);
+        GuiServices.UPDATE_SCHEDULER.schedule(this);
+    }
+
+    /**
+     * Puts the specified items in this page, one for every slot.
+     * Only the slots whose item differs from the item they already have are changed,
+     * so refreshing a viewed page only sends the slots that changed.
+     * Buttons are not changed, so the items in their slots are ignored.
+     *
+     * @param items the items indexed by slot, where null empties the slot
+     * @throws IllegalArgumentException if the number of items is not the number of slots of this page
+     */
+    public void setContents(ItemStack[] items) {
+        if (items.length != this.contents.length) {
+            throw new IllegalArgumentException("items must have one item for each of the " +
+                    this.contents.length + " slots of the page");
+        }
+        if (!Bukkit.isPrimaryThread()) {
+            ItemStack[] copy = items.clone();
+            this.SWIFT_GUI.runOnServerThread(() -> setContents(copy));
+            return;
+        }
+        loadSavedContent();
+        for (int i = 0; i < items.length; i++) {
+            if (this.buttons[i] == null) {
+                setItem(i, items[i]);
+            }
+        }
+    }
+
+    /**
+     * Forgets the copies made for the state of this page and tells its SwiftGui that it changed.
+     */
+    private void stateChanged() {
+        this.itemsState = null;
+        this.buttonsState = null;
+        if (this.node != null) {
+            this.SWIFT_GUI.stateChanged();
+        }
+    }
+
+    /**
+     * Gets an unchangeable copy of this page with the specified page number.
+     * The copies of the items are reused until this page changes.
+     *
+     * @param pageNumber the page number of this page
+     * @return the state of this page
+     */
+    PageState getState(int pageNumber) {
+        if (this.itemsState == null) {
+            ItemStack[] items = new ItemStack[this.contents.length];
+            CustomButton[] buttons = new CustomButton[this.contents.length];
+            for (int i = 0; i < items.length; i++) {
+                ItemStack item = peekItem(i);
+                items[i] = item == null ? null : item.clone();
+                buttons[i] = getButton(i);
+            }
+            this.itemsState = items;
+            this.buttonsState = buttons;
+        }
+        return new PageState(this.name, getTitle(pageNumber), pageNumber, this.NUMBER_OF_ROWS,
+                this.itemsState, this.buttonsState);
+    }
+
+    /**
+     * Puts the items of the changed slots into the inventory until they are all in or the deadline has passed.
+     *
+     * @param deadline the {@link System#nanoTime()} after which no more items are put in
+     * @return true if there are no changed slots left
+     */
+    boolean flushUpdates(long deadline) {
+        for (int word = 0; word < this.dirtySlots.length; word++) {
+            while (this.dirtySlots[word] != 0) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                int index = word * 64 + Long.numberOfTrailingZeros(this.dirtySlots[word]);
+                this.dirtySlots[word] &= this.dirtySlots[word] - 1;
+                this.inventory.setItem(index, this.contents[index]);
+            }
+        }
+        return true;
+    }
+
+    private boolean isDirty(int index) {
+        return (this.dirtySlots[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void markDirty(int index) {
+        this.dirtySlots[index >>> 6] |= 1L << index;
+    }
+
+    private void clearDirty(int index) {
+        this.dirtySlots[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Gets the inventory of this page, creating it from the items of this page if it does not exist.
+     * The inventory is owned by this page's {@link PageHolder}, so clicks in it are routed to this page.
+     * <p>
+     * The title of an inventory cannot change, so if the title of this page changed since the inventory was created,
+     * a new inventory is created as long as nobody is viewing the old one.
+     * While the old inventory has viewers it is kept, and the new title shows once it has none.
+     *
+     * @return the inventory of this page
+     */
+    Inventory getInventory() {
+        if (hasOutdatedTitle()) {
+            releaseInventory();
+        }
+        if (this.inventory == null) {
+            this.inventoryTitle = getTitle();
+            this.inventory = Bukkit.createInventory(this.holder, this.NUMBER_OF_ROWS * 9, this.inventoryTitle);
+            this.inventory.setContents(this.contents);
+            GuiServices.INVENTORY_EVICTOR.track(this);
+            if (GuiMetrics.isEnabled()) {
+                this.SWIFT_GUI.getMetrics().pageBuilt();
+            }
+        }
+        this.lastUsed = System.currentTimeMillis();
+        return this.inventory;
+    }
+
+    /**
+     * Copies the items of the inventory of this page back into the page and lets go of the inventory.
+     * Nothing happens if the inventory does not exist or is being viewed.
+     */
+    void releaseInventory() {
+        if (this.inventory == null || hasViewers()) {
+            return;
+        }
+        detachInventory();
+        this.SWIFT_GUI.inventoryReleased(this);
+    }
+
+    /**
+     * Copies the items of the inventory of this page back into the page and lets go of the inventory,
+     * even if it is being viewed. The viewers keep the old inventory until this page is opened for them again.
+     */
+    void detachInventory() {
+        if (this.inventory == null) {
+            return;
+        }
+        takeMovedItems();
+        Arrays.fill(this.dirtySlots, 0);
+        GuiServices.UPDATE_SCHEDULER.cancel(this);
+
+        this.inventory = null;
+        this.inventoryTitle = null;
+        GuiServices.INVENTORY_EVICTOR.untrack(this);
+    }
+
+    /**
+     * Tells this page that a player may have moved items in or out of its inventory.
+     * The moved items are taken into the page on the next tick, once the move has been made.
+     */
+    void itemsMoved() {
+        if (this.movedItemsPending || !SwiftGui.getPluginInstance().isEnabled()) {
+            return;
+        }
+        this.movedItemsPending = true;
+        Bukkit.getScheduler().runTask(SwiftGui.getPluginInstance(), () -> {
+            this.movedItemsPending = false;
+            if (!this.disposed) {
+                takeMovedItems();
+            }
+        });
+    }
+
+    /**
+     * Remembers the items players moved in or out of the inventory of this page and records them in the journal.
+     * Slots with a pending change and slots with a button are skipped, since the page decides what they show.
+     */
+    private void takeMovedItems() {
+        if (this.inventory == null) {
+            return;
+        }
+        GuiJournal journal = getJournal();
+        for (int i = 0; i < this.contents.length; i++) {
+            if (isDirty(i) || this.buttons[i] != null) {
+                continue;
+            }
+            ItemStack item = this.inventory.getItem(i);
+            if (Objects.equals(item, this.contents[i])) {
+                continue;
+            }
+            this.contents[i] = item;
+            stateChanged();
+            if (journal != null) {
+                journal.itemSet(this, i, item);
+            }
+        }
+    }
+
+    /**
+     * Gets if the title of this page changed since its inventory was created.
+     *
+     * @return true if the inventory exists and was created with a different title
+     */
+    boolean hasOutdatedTitle() {
+        return this.inventory != null && !this.inventoryTitle.equals(getTitle());
+    }
+
+    /**
+     * Gets if anyone is viewing this page.
+     *
+     * @return true if this page has at least one viewer
+     */
+    boolean hasViewers() {
+        return !this.viewers.isEmpty();
+    }
+
+    /**
+     * Gets the players who are viewing this page.
+     *
+     * @return an unmodifiable view of the viewers of this page
+     * @throws IllegalStateException if this is not the server thread
+     */
+    public Set<Player> getViewers() {
+        SwiftGui.checkServerThread();
+        return Collections.unmodifiableSet(this.viewers);
+    }
+
+    /**
+     * Records that the specified player started viewing this page.
+     *
+     * @param player the player
+     */
+    void addViewer(Player player) {
+        if (this.viewers.add(player) && this.viewers.size() == 1) {
+            this.SWIFT_GUI.viewersChanged(this);
+        }
+    }
+
+    /**
+     * Records that the specified player stopped viewing this page.
+     *
+     * @param player the player
+     */
+    void removeViewer(Player player) {
+        if (this.viewers.remove(player) && this.viewers.isEmpty()) {
+            this.SWIFT_GUI.viewersChanged(this);
+        }
+    }
+
+    /**
+     * Gets the SwiftGui this page belongs to.
+     *
+     * @return the SwiftGui of this page
+     */
+    SwiftGui getSwiftGui() {
+        return SWIFT_GUI;
+    }
+
+    /**
+     * Gets the last time the inventory of this page was opened or seen with viewers.
+     *
+     * @return the time in milliseconds
+     */
+    long getLastUsed() {
+        return lastUsed;
     }
 
-    void setPageNumber(int pageNumber) {
-        this.pageNumber = pageNumber;
+    /**
+     * Sets the last time the inventory of this page was seen with viewers.
+     *
+     * @param lastUsed the time in milliseconds
+     */
+    void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    /**
+     * Makes sure the specified index is inside this page.
+     *
+     * @param index the index to be checked
+     * @throws IllegalArgumentException if the index is outside of this page
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.buttons.length) {
+            throw new IllegalArgumentException("index must be between 0 and " + (this.buttons.length - 1) +
+                    " for a page with " + this.NUMBER_OF_ROWS + " rows.");
+        }
+    }
+
+    /**
+     * Adds a button to this page and puts the button's item in the inventory.
+     *
+     * @param button the button to be added
+     * @throws IllegalArgumentException if the button's index is outside of this page
+     *                                  or the SwiftGui of this page does not allow the button
+     * @throws IllegalStateException    if there is already a button at the button's index
+     *                                  or this page has been disposed
+     */
+    private void addButton(CustomButton button) {
+
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(() -> addButton(button));
+            return;
+        }
+
+        checkNotDisposed();
+        loadSavedContent();
+
+        /* a button only knows one page, so it cannot be shared between pages */
+        if (button.page != null || button.isDisposed()) {
+            throw new IllegalStateException("The button is already on a page or has been disposed. " +
+                    "Create a new button for every page.");
+        }
+
+        this.SWIFT_GUI.checkButton(button);
+
+        /* make sure the slot exists and is not taken by another button */
+        int index = button.getIndex();
+        checkIndex(index);
+        if (this.buttons[index] != null) {
+            throw new IllegalStateException("There is already a button at index " + index + ". " +
+                    "Remove it first or use replaceButton.");
+        }
+
+        /* set the button's page to this page and put it in the slot */
+        button.setPage(this);
+        this.buttons[index] = button;
+        GuiJournal journal = getJournal();
+        if (journal != null) {
+            journal.buttonAdded(this, button);
+        }
+        setItem(index, ItemCache.of(button.getMaterial()));
     }
 
     /**
      * Opens this page's inventory for the specified player.
+     *
+     * @throws IllegalStateException if this page has been disposed or the plugin instance has not been set
      */
     void openInventory(Player player) {
-        player.openInventory(this.inventory);
+        checkNotDisposed();
+
+        /* make sure clicks can be routed to this page */
+        if (SwiftGui.getPluginInstance() == null) {
+            throw new IllegalStateException("The plugin instance must be set with SwiftGui.setPluginInstance " +
+                    "before any pages are opened.");
+        }
+        if (this.pendingLoader != null && this.pendingLoad == null) {
+            startPendingLoader();
+        }
+        player.openInventory(getInventory());
+    }
+
+    /**
+     * Sets the items shown in this page while its content is being loaded with {@link #loadAsync}.
+     * Slots that have buttons are left alone, and the buttons of the placeholder are not used.
+     *
+     * @param loadingPlaceholder the items shown while loading, or null to use the placeholder of the SwiftGui
+     * @throws IllegalArgumentException if the placeholder is for a page with a different number of rows
+     */
+    public void setLoadingPlaceholder(PageContent loadingPlaceholder) {
+        if (loadingPlaceholder != null && loadingPlaceholder.getNumberOfRows() != this.NUMBER_OF_ROWS) {
+            throw new IllegalArgumentException("loadingPlaceholder must have the same number of rows as the page");
+        }
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(() -> setLoadingPlaceholder(loadingPlaceholder));
+            return;
+        }
+        this.loadingPlaceholder = loadingPlaceholder;
+    }
+
+    /**
+     * Loads the content of this page with {@link #loadAsync(Consumer)} the first time it is opened,
+     * so pages that are never opened are never loaded.
+     * Setting another loader before the page is opened replaces this one.
+     *
+     * @param loader fills in the content of this page; it must not touch the page or any other Bukkit state
+     */
+    public void loadWhenOpened(Consumer<PageContent> loader) {
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(() -> loadWhenOpened(loader));
+            return;
+        }
+        checkNotDisposed();
+
+        /* the content of a load of the old loader that is still running is thrown away */
+        if (this.pendingLoad != null) {
+            this.loadCount++;
+            this.pendingLoad = null;
+        }
+        this.pendingLoader = loader;
+    }
+
+    /**
+     * Starts the loader that fills in the content of this page the first time it is opened.
+     * If it fails it is started again the next time this page is opened.
+     */
+    private void startPendingLoader() {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+
+        /* the pending loader may have the saved content of this page, which loadAsync would load straight away */
+        CompletableFuture<Void> load = startLoad(this.pendingLoader,
+                task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+        this.pendingLoad = load;
+        load.whenComplete((result, error) -> {
+
+            /* a load that was thrown away must not touch the load that replaced it */
+            if (this.pendingLoad != load) {
+                return;
+            }
+            if (error == null) {
+                this.pendingLoader = null;
+            }
+            this.pendingLoad = null;
+        });
+    }
+
+    /**
+     * Gets this page ready to be opened: starts loading its content if it is loaded when opened
+     * and creates its inventory.
+     */
+    void prefetch() {
+        if (this.disposed) {
+            return;
+        }
+        if (this.pendingLoader != null && this.pendingLoad == null) {
+            startPendingLoader();
+        }
+        getInventory();
+    }
+
+    /**
+     * Undoes {@link #prefetch()} because nobody is near this page anymore.
+     * A load that is still running is thrown away, so the loader runs again when this page is opened,
+     * and the inventory is released.
+     */
+    void dropPrefetch() {
+        if (this.pendingLoad != null) {
+            this.loadCount++;
+            this.pendingLoad = null;
+        }
+        releaseInventory();
+    }
+
+    /**
+     * Gets the loader that fills in the content of this page the first time it is opened.
+     *
+     * @return the loader, or null if this page has nothing left to load
+     */
+    Consumer<PageContent> getPendingLoader() {
+        return pendingLoader;
+    }
+
+    /**
+     * Loads the content of this page on one of the server's asynchronous worker threads.
+     *
+     * @param loader fills in the content of this page; it must not touch the page or any other Bukkit state
+     * @return a future that completes on the server thread once the content has been put in this page
+     * @see #loadAsync(Consumer, Executor)
+     */
+    public CompletableFuture<Void> loadAsync(Consumer<PageContent> loader) {
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+        return loadAsync(loader, task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    /**
+     * Loads the content of this page with the specified executor, for example from a database.
+     * <p>
+     * The loading placeholder is shown straight away. Once the loader has filled in the content,
+     * the content is put in this page in one batch on the next server tick, and the placeholder items
+     * the content did not replace are removed. If this page is loaded again before the load finishes,
+     * or is disposed, the content of the older load is thrown away and its future is cancelled.
+     * On other threads the load is started on the server thread on the next tick.
+     *
+     * @param loader   fills in the content of this page; it must not touch the page or any other Bukkit state
+     * @param executor runs the loader
+     * @return a future that completes on the server thread once the content has been put in this page
+     */
+    public CompletableFuture<Void> loadAsync(Consumer<PageContent> loader, Executor executor) {
+
+        if (!Bukkit.isPrimaryThread()) {
+            return this.SWIFT_GUI.call(swiftGui -> loadAsync(loader, executor)).thenCompose(loaded -> loaded);
+        }
+
+        checkNotDisposed();
+        loadSavedContent();
+        return startLoad(loader, executor);
+    }
+
+    /**
+     * Starts loading the content of this page with the specified executor, as {@link #loadAsync} does.
+     *
+     * @param loader   fills in the content of this page
+     * @param executor runs the loader
+     * @return a future that completes on the server thread once the content has been put in this page
+     */
+    private CompletableFuture<Void> startLoad(Consumer<PageContent> loader, Executor executor) {
+        int load = ++this.loadCount;
+        JavaPlugin plugin = SwiftGui.getPluginInstance();
+
+        /* show the placeholder while loading */
+        PageContent placeholder = this.loadingPlaceholder != null
+                ? this.loadingPlaceholder : this.SWIFT_GUI.getLoadingPlaceholder();
+        if (placeholder != null && placeholder.getNumberOfRows() != this.NUMBER_OF_ROWS) {
+            placeholder = null;
+        }
+        if (placeholder != null) {
+            this.recordingChanges = false;
+            try {
+                for (int i = 0; i < this.contents.length; i++) {
+                    if (placeholder.isSet(i) && this.buttons[i] == null) {
+                        setItem(i, placeholder.getItem(i));
+                    }
+                }
+            } finally {
+                this.recordingChanges = true;
+            }
+        }
+        PageContent shownPlaceholder = placeholder;
+
+        /* fill in the content on the executor, then put it in this page on the server thread */
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> {
+            PageContent content = new PageContent(this.NUMBER_OF_ROWS);
+            loader.accept(content);
+            return content;
+        }, executor).whenComplete((content, error) -> {
+            if (!plugin.isEnabled()) {
+                loaded.cancel(false);
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    plugin.getLogger().log(Level.WARNING,
+                            "Failed to load the content of page \"" + this.name + "\"", cause);
+                    loaded.completeExceptionally(cause);
+                } else if (this.disposed || load != this.loadCount) {
+                    loaded.cancel(false);
+                } else {
+                    commitContent(content, shownPlaceholder);
+                    loaded.complete(null);
+                }
+            });
+        });
+
+        return loaded;
+    }
+
+    /**
+     * Puts loaded content in this page and removes the placeholder items it did not replace.
+     *
+     * @param content     the content that was loaded
+     * @param placeholder the placeholder that was shown while loading, or null
+     */
+    private void commitContent(PageContent content, PageContent placeholder) {
+        this.recordingChanges = false;
+        try {
+            if (placeholder != null) {
+                for (int i = 0; i < this.contents.length; i++) {
+                    if (placeholder.isSet(i) && !content.isSet(i) && this.buttons[i] == null) {
+                        setItem(i, null);
+                    }
+                }
+            }
+            content.applyTo(this);
+        } finally {
+            this.recordingChanges = true;
+        }
+    }
+
+    /**
+     * Fills in the content of this page straight away on this thread if it has not been loaded yet.
+     * Any load that is still running is thrown away.
+     */
+    void loadPendingNow() {
+        Consumer<PageContent> loader = this.pendingLoader;
+        if (loader == null) {
+            return;
+        }
+        this.pendingLoader = null;
+        this.pendingLoad = null;
+        this.loadCount++;
+
+        PageContent content = new PageContent(this.NUMBER_OF_ROWS);
+        loader.accept(content);
+        commitContent(content, null);
+    }
+
+    /**
+     * Fills in the content this page was saved with before it is changed, if it was restored from a snapshot
+     * and has not been opened since. Otherwise the saved content would be put over the change when this page
+     * is opened, and the snapshot would keep saving the content from before the change.
+     * Changes made while content is being put in this page are part of that content, so they are left alone.
+     */
+    private void loadSavedContent() {
+        if (this.recordingChanges && this.pendingLoader != null && GuiSnapshot.isSavedContent(this.pendingLoader)) {
+            loadPendingNow();
+        }
+    }
+
+    /**
+     * Gets the journal changes to this page are recorded in.
+     *
+     * @return the journal, or null if changes to this page are not recorded
+     */
+    private GuiJournal getJournal() {
+        return this.node != null && this.recordingChanges ? this.SWIFT_GUI.getJournal() : null;
     }
 
     /**
@@ -137,12 +1136,7 @@ public class Page {
      * @param index the index in the page where the button should appear.
      */
     public void addBackButton(int index) {
-        /* set the button's item in the inventory and make a button */
-        this.inventory.setItem(index, new ItemStack(Material.ARROW));
-        /* make a button */
-        CustomButton backButton = new BackButton(index, Material.ARROW, this.SWIFT_GUI);
-        /* set the button's page to this page */
-        backButton.setPage(this);
+        addButton(new BackButton(index, Material.ARROW, this.SWIFT_GUI));
     }
 
     /**
@@ -158,18 +1152,13 @@ public class Page {
      * @param index the index in the page where the button should appear.
      */
     public void addDeletePageButton(int index) {
-        /* set the button's item in the inventory and make a button. */
-        this.inventory.setItem(index, new ItemStack(Material.TNT));
-        CustomButton deletePageButton = new DeletePageButton(index, Material.TNT, this.SWIFT_GUI);
-        /* set the button's page to this page */
-        deletePageButton.setPage(this);
+        addButton(new DeletePageButton(index, Material.TNT, this.SWIFT_GUI));
     }
 
     /**
      * Adds a new page button to this page in the default index which is the sixth slot of the last row.
      */
     public void addNewPageButton() {
-        /* set the button's item in the inventory and make a button. */
         addNewPageButton(this.DEFAULT_NEW_PAGE_BUTTON_INDEX);
     }
 
@@ -179,18 +1168,13 @@ public class Page {
      * @param index the index in the page where the button should appear.
      */
     public void addNewPageButton(int index) {
-        /* set the button's item in the inventory and make a button. */
-        this.inventory.setItem(index, new ItemStack(Material.PAPER));
-        CustomButton newPageButton = new NewPageButton(index, Material.PAPER, this.SWIFT_GUI);
-        /* set the button's page to this page */
-        newPageButton.setPage(this);
+        addButton(new NewPageButton(index, Material.PAPER, this.SWIFT_GUI));
     }
 
     /**
      * Adds a forward button to this page in the default index which is the last slot of the last row.
      */
     public void addForwardButton() {
-        /* set the button's item in the inventory and make a button. */
         addForwardButton(this.DEFAULT_FORWARD_BUTTON_INDEX);
     }
 
@@ -200,57 +1184,18 @@ public class Page {
      * @param index the index in the page where the button should appear.
      */
     public void addForwardButton(int index) {
-        /* set the button's item in the inventory and make a button. */
-        this.inventory.setItem(index, new ItemStack(Material.ARROW));
-        CustomButton forwardButton = new ForwardButton(index, Material.ARROW, this.SWIFT_GUI);
-        /* set the button's page to this page */
-        forwardButton.setPage(this);
+        addButton(new ForwardButton(index, Material.ARROW, this.SWIFT_GUI));
     }
 
     /**
      * Adds a customButton to this page at the specified index.
      *
      * @param customButton the type of button to be added
+     * @throws IllegalArgumentException if the button's index is outside of this page
+     * @throws IllegalStateException    if there is already a button at the button's index
      */
     public void addCustomButton(CustomButton customButton) {
-        /* set the button's item in the inventory and make a button. */
-        this.inventory.setItem(customButton.getIndex(), new ItemStack(customButton.getMaterial()));
-        /* set the button's page to this page */
-        customButton.setPage(this);
-    }
-
-    /**
-     * Numbers this page in ascending order in correspondence to the other pages in the SwiftGui.
-     * A dash followed by the page number is appended to the page name.
-     */
-    void renameAscending() {
-
-        /* change the page name */
-        this.name = this.name + " - " + this.pageNumber;
-
-        /* get the contents of the old inventory*/
-        ItemStack[] contents = this.inventory.getContents();
-        /* reassign this page's inventory to a new inventory*/
-        this.inventory = Bukkit.createInventory(null, this.NUMBER_OF_ROWS, this.name);
-        /* populate new inventory with the old inventory's materials */
-        this.inventory.addItem(contents);
-    }
-
-    /**
-     * Numbers this page in descending order in correspondence to the other pages in the SwiftGui.
-     * A dash followed by the page number is appended to the page name.
-     */
-    void renameDescending() {
-
-        /* change the page name */
-        this.name = this.name + " - " + (this.SWIFT_GUI.size() - this.pageNumber);
-
-        /* get the contents of the old inventory*/
-        ItemStack[] contents = this.inventory.getContents();
-        /* reassign this page's inventory to a new inventory*/
-        this.inventory = Bukkit.createInventory(null, this.NUMBER_OF_ROWS, this.name);
-        /* populate new inventory with the old inventory's materials */
-        this.inventory.addItem(contents);
+        addButton(customButton);
     }
 
     /**
@@ -262,35 +1207,28 @@ public class Page {
      * @param fillMaterial  the material that will be used to fill the border
      */
     public void fillBorder(int[][] borderPattern, Material fillMaterial) {
+        fillBorder(Layout.of(borderPattern, fillMaterial));
+    }
 
-        /* make sure the border pattern has the same dimensions as this page */
-        if (borderPattern.length != this.NUMBER_OF_ROWS) {
-            throw new IllegalArgumentException("borderPattern must have the same number of rows as the page");
-        }
-        for (int[] row : borderPattern) {
-            if (row.length != 9) {
-                throw new IllegalArgumentException("borderPattern must have the same number of columns as the page");
-            }
-        }
-
-        /* get the contents of the old inventory*/
-        ItemStack[] contents = this.inventory.getContents();
-        /* reassign this page's inventory to a new inventory*/
-        this.inventory = Bukkit.createInventory(null, this.NUMBER_OF_ROWS, this.name);
-
-        /* fill the border */
-        int index = 0;
+    /**
+     * The page will be filled according to the specified layout.
+     * Slots that have buttons are left alone.
+     *
+     * @param layout the layout, which must have the same number of rows as this page
+     * @throws IllegalArgumentException if the layout does not have the same number of rows as this page
+     */
+    public void fillBorder(Layout layout) {
 
-        for (int[] row : borderPattern) {
-            for (int value : row) {
-                if (value == 1) {
-                    this.inventory.setItem(index, new ItemStack(fillMaterial));
-                }
-                index++;
-            }
+        /* make sure the layout has the same dimensions as this page */
+        if (layout.getNumberOfRows() != this.NUMBER_OF_ROWS) {
+            throw new IllegalArgumentException("The layout must have the same number of rows as the page");
+        }
+        if (!Bukkit.isPrimaryThread()) {
+            this.SWIFT_GUI.runOnServerThread(() -> fillBorder(layout));
+            return;
         }
 
-        /* populate new inventory with the old inventory's materials */
-        this.inventory.addItem(contents);
+        loadSavedContent();
+        layout.applyTo(this);
     }
 }
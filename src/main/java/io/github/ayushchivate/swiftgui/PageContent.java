@@ -0,0 +1,176 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The items and buttons of a page, collected before they are put in the page.
+ * <p>
+ * A PageContent does not touch the page or its inventory, so it can be filled on any thread.
+ * It is put in the page in one go on the server thread, for example by {@link Page#loadAsync}.
+ */
+public final class PageContent {
+
+    /**
+     * The number of rows of the page this content is for.
+     */
+    private final int numberOfRows;
+
+    /**
+     * The items indexed by the slot they go in.
+     */
+    private final ItemStack[] items;
+
+    /**
+     * The items that were read in serialized form indexed by slot, or null if there are none.
+     * Deserializing an item touches Bukkit, so they are only deserialized when the content is put in the page.
+     */
+    private byte[][] serializedItems;
+
+    /**
+     * The slots that have been set, including slots that were set to be empty.
+     */
+    private final BitSet setSlots;
+
+    /**
+     * The buttons that are put in the page.
+     */
+    private final List<CustomButton> buttons = new ArrayList<>();
+
+    /**
+     * Creates empty content for a page with the specified number of rows.
+     *
+     * @param numberOfRows the number of rows of the page
+     */
+    public PageContent(int numberOfRows) {
+        if (numberOfRows <= 0) {
+            throw new IllegalArgumentException("numberOfRows cannot be less than or equal to zero. " +
+                    "Must be a positive multiple of 9.");
+        }
+        this.numberOfRows = numberOfRows;
+        this.items = new ItemStack[numberOfRows * 9];
+        this.setSlots = new BitSet(numberOfRows * 9);
+    }
+
+    /**
+     * Gets the number of rows of the page this content is for.
+     *
+     * @return the number of rows
+     */
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Sets the item that goes in the specified slot.
+     *
+     * @param index the index of the slot
+     * @param item  the item, or null to empty the slot
+     * @throws IllegalArgumentException if the index is outside of the page
+     */
+    public void setItem(int index, ItemStack item) {
+        checkIndex(index);
+        this.items[index] = item;
+        if (this.serializedItems != null) {
+            this.serializedItems[index] = null;
+        }
+        this.setSlots.set(index);
+    }
+
+    /**
+     * Sets the item that goes in the specified slot in the serialized form of {@link GuiSnapshot#serializeItem}.
+     * It is deserialized on the server thread when the content is put in the page.
+     *
+     * @param index the index of the slot
+     * @param item  the serialized item
+     * @throws IllegalArgumentException if the index is outside of the page
+     */
+    void setSerializedItem(int index, byte[] item) {
+        checkIndex(index);
+        if (this.serializedItems == null) {
+            this.serializedItems = new byte[this.items.length][];
+        }
+        this.items[index] = null;
+        this.serializedItems[index] = item;
+        this.setSlots.set(index);
+    }
+
+    /**
+     * Adds a button that replaces any button already at its index when the content is put in the page.
+     *
+     * @param button the button to be added
+     * @throws IllegalArgumentException if the button's index is outside of the page
+     */
+    public void addButton(CustomButton button) {
+        checkIndex(button.getIndex());
+        this.buttons.add(button);
+        this.setSlots.set(button.getIndex());
+    }
+
+    /**
+     * Gets the item that goes in the specified slot.
+     *
+     * @param index the index of the slot
+     * @return the item, or null if the slot is empty or has not been set
+     */
+    ItemStack getItem(int index) {
+        return this.items[index];
+    }
+
+    /**
+     * Gets if the specified slot has been set by an item or a button.
+     *
+     * @param index the index of the slot
+     * @return true if the slot has been set
+     */
+    boolean isSet(int index) {
+        return this.setSlots.get(index);
+    }
+
+    /**
+     * Puts the items and buttons in the specified page.
+     * This must be called on the server thread.
+     *
+     * @param page the page the content is put in
+     */
+    void applyTo(Page page) {
+        for (int index = this.setSlots.nextSetBit(0); index >= 0; index = this.setSlots.nextSetBit(index + 1)) {
+            if (this.serializedItems != null && this.serializedItems[index] != null) {
+                page.setItem(index, deserializeItem(this.serializedItems[index], page));
+            } else {
+                page.setItem(index, this.items[index]);
+            }
+        }
+        for (CustomButton button : this.buttons) {
+            page.replaceButton(button);
+        }
+    }
+
+    /**
+     * Deserializes an item of the specified page. An item that cannot be read leaves its slot empty.
+     */
+    private static ItemStack deserializeItem(byte[] item, Page page) {
+        try {
+            return GuiSnapshot.deserializeItem(item);
+        } catch (IOException e) {
+            JavaPlugin plugin = SwiftGui.getPluginInstance();
+            (plugin != null ? plugin.getLogger() : Bukkit.getLogger())
+                    .log(Level.WARNING, "Failed to read an item of page \"" + page.getName() + "\"", e);
+            return null;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.items.length) {
+            throw new IllegalArgumentException("index must be between 0 and " + (this.items.length - 1) +
+                    " for a page with " + this.numberOfRows + " rows.");
+        }
+    }
+}
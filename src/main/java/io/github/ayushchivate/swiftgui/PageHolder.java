@@ -0,0 +1,47 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The holder of every inventory created by a page.
+ * A click is matched to its page by checking the holder of the clicked inventory.
+ * A page keeps the same holder when its inventory is released and created again.
+ */
+final class PageHolder implements InventoryHolder {
+
+    /**
+     * The page that owns the inventory.
+     */
+    private final Page page;
+
+    /**
+     * Creates a holder for the inventories of the specified page.
+     *
+     * @param page the page that owns the inventories
+     */
+    PageHolder(Page page) {
+        this.page = page;
+    }
+
+    /**
+     * Gets the page that owns the inventory.
+     *
+     * @return the page that owns the inventory
+     */
+    Page getPage() {
+        return page;
+    }
+
+    /**
+     * Gets the inventory of the page, creating it if the page has not created it yet.
+     *
+     * @return the inventory of the page
+     */
+    @NotNull
+    @Override
+    public Inventory getInventory() {
+        return page.getInventory();
+    }
+}
@@ -0,0 +1,326 @@
+package io.github.ayushchivate.swiftgui;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An ordered sequence of pages that supports inserting, removing and looking up pages by position
+ * in O(log n) time.
+ * <p>
+ * The pages are kept in a tree where every node knows the size of its subtree and its parent,
+ * so the position of a page, and therefore its page number, is worked out by walking up from its node
+ * instead of being stored in the page.
+ */
+final class PageList implements Iterable<Page> {
+
+    /**
+     * The root node of the tree, or null if the list is empty.
+     */
+    private Node root;
+
+    /**
+     * Gets the number of pages in this list.
+     *
+     * @return the number of pages
+     */
+    int size() {
+        return size(this.root);
+    }
+
+    /**
+     * Gets the page at the specified position.
+     *
+     * @param index the position of the page, starting at zero
+     * @return the page at the position
+     * @throws IndexOutOfBoundsException if there is no page at the position
+     */
+    Page get(int index) {
+        checkIndex(index, size());
+
+        Node node = this.root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.page;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the position of the specified page.
+     *
+     * @param page the page
+     * @return the position of the page starting at zero, or -1 if the page is not in this list
+     */
+    int indexOf(Page page) {
+        Node node = page.node;
+        if (node == null || node.list != this) {
+            return -1;
+        }
+
+        /* every time the walk comes up from a right child, the parent and its left subtree come before the page */
+        int index = size(node.left);
+        while (node.parent != null) {
+            if (node == node.parent.right) {
+                index += size(node.parent.left) + 1;
+            }
+            node = node.parent;
+        }
+        return index;
+    }
+
+    /**
+     * Adds the specified page to the end of this list.
+     *
+     * @param page the page to be added
+     */
+    void add(Page page) {
+        add(size(), page);
+    }
+
+    /**
+     * Inserts the specified page at the specified position.
+     * The page at that position and every page after it are moved back by one.
+     *
+     * @param index the position the page is inserted at, starting at zero
+     * @param page  the page to be inserted
+     * @throws IndexOutOfBoundsException if the position is past the end of this list
+     * @throws IllegalStateException     if the page is already in a list
+     */
+    void add(int index, Page page) {
+        checkIndex(index, size() + 1);
+        if (page.node != null) {
+            throw new IllegalStateException("The page is already in a SwiftGui.");
+        }
+
+        Node node = new Node(page, this);
+        page.node = node;
+
+        Node[] halves = split(this.root, index);
+        this.root = merge(merge(halves[0], node), halves[1]);
+        this.root.parent = null;
+    }
+
+    /**
+     * Removes the page at the specified position.
+     * Every page after it is moved forward by one.
+     *
+     * @param index the position of the page, starting at zero
+     * @return the page that was removed
+     * @throws IndexOutOfBoundsException if there is no page at the position
+     */
+    Page remove(int index) {
+        checkIndex(index, size());
+
+        Node[] halves = split(this.root, index);
+        Node[] rest = split(halves[1], 1);
+        this.root = merge(halves[0], rest[1]);
+        if (this.root != null) {
+            this.root.parent = null;
+        }
+
+        Page page = rest[0].page;
+        page.node = null;
+        return page;
+    }
+
+    /**
+     * Removes the specified page from this list.
+     *
+     * @param page the page to be removed
+     * @return true if the page was in this list
+     */
+    boolean remove(Page page) {
+        int index = indexOf(page);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Removes all pages from this list.
+     */
+    void clear() {
+        for (Page page : this) {
+            page.node = null;
+        }
+        this.root = null;
+    }
+
+    /**
+     * Gets all pages in this list in order.
+     *
+     * @return an array of the pages
+     */
+    Page[] toArray() {
+        Page[] pages = new Page[size()];
+        int i = 0;
+        for (Page page : this) {
+            pages[i++] = page;
+        }
+        return pages;
+    }
+
+    /**
+     * Iterates over the pages in order.
+     * The list must not be changed while it is being iterated over.
+     *
+     * @return an iterator over the pages
+     */
+    @Override
+    public Iterator<Page> iterator() {
+        return new Iterator<Page>() {
+
+            /* the nodes whose page and right subtree have not been visited yet */
+            private final Deque<Node> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node node) {
+                while (node != null) {
+                    this.stack.push(node);
+                    node = node.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !this.stack.isEmpty();
+            }
+
+            @Override
+            public Page next() {
+                if (this.stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = this.stack.pop();
+                pushLeft(node.right);
+                return node.page;
+            }
+        };
+    }
+
+    /**
+     * Splits the specified tree into a tree of its first nodes and a tree of the rest.
+     *
+     * @param node  the root of the tree to be split
+     * @param count the number of nodes that go into the first tree
+     * @return the first tree and the rest, either of which may be null
+     */
+    private static Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        int leftSize = size(node.left);
+        if (count <= leftSize) {
+            Node[] halves = split(node.left, count);
+            node.left = halves[1];
+            update(node);
+            halves[1] = node;
+            return halves;
+        } else {
+            Node[] halves = split(node.right, count - leftSize - 1);
+            node.right = halves[0];
+            update(node);
+            halves[0] = node;
+            return halves;
+        }
+    }
+
+    /**
+     * Joins two trees so that every node of the first comes before every node of the second.
+     *
+     * @param first  the root of the first tree, or null
+     * @param second the root of the second tree, or null
+     * @return the root of the joined tree
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        } else {
+            second.left = merge(first, second.left);
+            update(second);
+            return second;
+        }
+    }
+
+    /**
+     * Recalculates the size of the specified node and points its children back at it.
+     *
+     * @param node the node whose children changed
+     */
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of bounds for " + size + " pages.");
+        }
+    }
+
+    /**
+     * A node in the tree that holds one page.
+     */
+    static final class Node {
+
+        private final Page page;
+
+        /**
+         * The list the node belongs to.
+         */
+        private final PageList list;
+
+        /**
+         * A random priority that keeps the tree balanced.
+         */
+        private final int priority = ThreadLocalRandom.current().nextInt();
+
+        private Node left;
+
+        private Node right;
+
+        private Node parent;
+
+        /**
+         * The number of nodes in the subtree this node is the root of.
+         */
+        private int size = 1;
+
+        private Node(Page page, PageList list) {
+            this.page = page;
+            this.list = list;
+        }
+    }
+}
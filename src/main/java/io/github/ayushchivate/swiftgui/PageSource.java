@@ -0,0 +1,28 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Supplies the items shown by a {@link PaginatedGui}.
+ * Only the items of the page someone is viewing are fetched.
+ */
+public interface PageSource {
+
+    /**
+     * Gets the total number of items.
+     *
+     * @return the number of items
+     */
+    int count();
+
+    /**
+     * Gets a range of items.
+     *
+     * @param offset the position of the first item, starting at zero
+     * @param length the number of items to get
+     * @return the items in the range, which may be fewer than length if the source has fewer items
+     */
+    List<ItemStack> fetch(int offset, int length);
+}
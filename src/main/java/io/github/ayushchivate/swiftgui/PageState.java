@@ -0,0 +1,107 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * An unchangeable copy of a page as it was when its {@link GuiState} was made, which can be read on any thread.
+ */
+public final class PageState {
+
+    private final String name;
+
+    private final String title;
+
+    private final int pageNumber;
+
+    private final int numberOfRows;
+
+    /**
+     * The items indexed by slot. They are copies that are shared with later states while the page is unchanged,
+     * so they are copied again before they are handed out.
+     */
+    private final ItemStack[] items;
+
+    /**
+     * The buttons indexed by slot.
+     */
+    private final CustomButton[] buttons;
+
+    PageState(String name, String title, int pageNumber, int numberOfRows, ItemStack[] items,
+              CustomButton[] buttons) {
+        this.name = name;
+        this.title = title;
+        this.pageNumber = pageNumber;
+        this.numberOfRows = numberOfRows;
+        this.items = items;
+        this.buttons = buttons;
+    }
+
+    /**
+     * Gets the name of the page.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the title of the page's inventory.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the page number of the page.
+     *
+     * @return the page number, starting at 1
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Gets the number of rows of the page.
+     *
+     * @return the number of rows
+     */
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Gets the item that was in the specified slot of the page.
+     *
+     * @param index the index of the slot
+     * @return a copy of the item, or null if the slot was empty
+     * @throws IllegalArgumentException if the index is outside of the page
+     */
+    public ItemStack getItem(int index) {
+        checkIndex(index);
+        ItemStack item = this.items[index];
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * Gets the button that was in the specified slot of the page.
+     * The button itself is not a copy, so it must only be changed on the server thread.
+     *
+     * @param index the index of the slot
+     * @return the button, or null if the slot had no button
+     * @throws IllegalArgumentException if the index is outside of the page
+     */
+    public CustomButton getButton(int index) {
+        checkIndex(index);
+        return this.buttons[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.items.length) {
+            throw new IllegalArgumentException("index must be between 0 and " + (this.items.length - 1) +
+                    " for a page with " + this.numberOfRows + " rows.");
+        }
+    }
+}
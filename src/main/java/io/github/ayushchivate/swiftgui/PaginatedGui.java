@@ -0,0 +1,313 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A SwiftGui that shows the items of a {@link PageSource} one page at a time.
+ * <p>
+ * Instead of building a page for every page number, every viewer gets a single page
+ * whose items are fetched from the source for the page number they are on.
+ * The back and forward buttons in the last row move that page through the source,
+ * so memory and build time depend on the number of viewers instead of the number of items.
+ * The page of a viewer is let go once its inventory is released for being idle.
+ */
+public class PaginatedGui extends SwiftGui {
+
+    /**
+     * The source of the items.
+     */
+    private final PageSource source;
+
+    /**
+     * The number of rows in the page of every viewer.
+     */
+    private final int numberOfRows;
+
+    /**
+     * The name of the page of every viewer.
+     */
+    private final String pagesName;
+
+    /**
+     * The number of items shown on every page, which is every slot except for the last row.
+     */
+    private final int itemsPerPage;
+
+    /**
+     * Sets up the page of a viewer after the back and forward buttons have been added, or null.
+     */
+    private Consumer<Page> pageDecorator;
+
+    /**
+     * The view of every player who has the SwiftGui open.
+     */
+    private final Map<UUID, View> viewsByPlayer = new HashMap<>();
+
+    /**
+     * The view every page belongs to.
+     */
+    private final Map<Page, View> viewsByPage = new IdentityHashMap<>();
+
+    /**
+     * Creates a PaginatedGui that shows the items of the specified source.
+     *
+     * @param source       the source of the items
+     * @param numberOfRows the number of rows in every page, including the last row that holds the buttons
+     * @param pagesName    the name for all the pages
+     * @throws IllegalArgumentException if the number of rows is less than 2
+     */
+    public PaginatedGui(@NotNull PageSource source, int numberOfRows, @NotNull String pagesName) {
+
+        /* make sure there is at least one row of items above the buttons */
+        if (numberOfRows < 2) {
+            throw new IllegalArgumentException("numberOfRows must be at least 2 " +
+                    "so there is a row of items above the buttons.");
+        }
+
+        this.source = source;
+        this.numberOfRows = numberOfRows;
+        this.pagesName = pagesName;
+        this.itemsPerPage = (numberOfRows - 1) * 9;
+    }
+
+    /**
+     * Sets what is done to the page of every new viewer after its back and forward buttons have been added,
+     * for example adding more buttons to the last row.
+     * The slots above the last row are overwritten with items from the source.
+     *
+     * @param pageDecorator sets up the page of a viewer, or null to do nothing
+     */
+    public void setPageDecorator(Consumer<Page> pageDecorator) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> setPageDecorator(pageDecorator));
+            return;
+        }
+        this.pageDecorator = pageDecorator;
+    }
+
+    /**
+     * Opens the first page for the specified player.
+     * If the player already has the SwiftGui open, the page they were on is opened again.
+     *
+     * @param player the player who's inventory should be opened
+     */
+    @Override
+    public void open(Player player) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player));
+            return;
+        }
+        View view = this.viewsByPlayer.get(player.getUniqueId());
+        if (view == null) {
+            view = createView(player);
+        }
+        render(view);
+        view.page.openInventory(player);
+    }
+
+    /**
+     * Opens the specified page number for the specified player.
+     *
+     * @param player     the player who's inventory should be opened
+     * @param pageNumber the page number to be opened
+     * @throws IllegalArgumentException if the page number is outside the source
+     */
+    @Override
+    public void open(Player player, int pageNumber) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player, pageNumber));
+            return;
+        }
+        if (pageNumber < 1 || pageNumber > size()) {
+            throw new IllegalArgumentException("This PaginatedGui has no page " + pageNumber + ".");
+        }
+        View view = this.viewsByPlayer.get(player.getUniqueId());
+        if (view == null) {
+            view = createView(player);
+        }
+        view.pageIndex = pageNumber - 1;
+        open(player);
+    }
+
+    /**
+     * Moves the page of the specified player to the specified page number and shows it.
+     * Nothing happens if the page number is outside the source.
+     */
+    @Override
+    void openPage(Player player, Page from, int pageNumber) {
+
+        View view = this.viewsByPage.get(from);
+        if (view == null || pageNumber < 1 || pageNumber > size()) {
+            return;
+        }
+
+        view.pageIndex = pageNumber - 1;
+        render(view);
+
+        /* a numbered title changes with the page number, so the viewer needs an inventory with the new title */
+        if (view.page.hasOutdatedTitle()) {
+            view.page.detachInventory();
+            view.page.openInventory(player);
+        }
+    }
+
+    /**
+     * Gets the page number the specified page is showing.
+     */
+    @Override
+    int getPageNumber(Page page) {
+        View view = this.viewsByPage.get(page);
+        return view == null ? 0 : view.pageIndex + 1;
+    }
+
+    /**
+     * Lets go of the page of a viewer once nobody has viewed it for a while.
+     */
+    @Override
+    void inventoryReleased(Page page) {
+        View view = this.viewsByPage.remove(page);
+        if (view != null) {
+            this.viewsByPlayer.remove(view.viewer);
+            page.dispose();
+        }
+    }
+
+    /**
+     * Returns the number of pages needed to show every item of the source.
+     */
+    @Override
+    int size() {
+        int count = this.source.count();
+        return Math.max(1, (count + this.itemsPerPage - 1) / this.itemsPerPage);
+    }
+
+    /**
+     * The pages of a PaginatedGui are made for each viewer, so pages cannot be added to it.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Page insertNewPage(int pageNumber, int numberOfRows, @NotNull String pageName) {
+        throw new UnsupportedOperationException("Pages cannot be added to a PaginatedGui.");
+    }
+
+    /**
+     * The pages of a PaginatedGui are made for each viewer, so pages cannot be added to it.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Page[] addNewPages(int numberOfPages, int numberOfRows, @NotNull String pagesName) {
+        throw new UnsupportedOperationException("Pages cannot be added to a PaginatedGui.");
+    }
+
+    /**
+     * The pages of a PaginatedGui are made for each viewer, so pages cannot be added to it.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public BulkPageBuilder bulkBuilder(int numberOfPages, int numberOfRows) {
+        throw new UnsupportedOperationException("Pages cannot be added to a PaginatedGui.");
+    }
+
+    /**
+     * The pages of a PaginatedGui are made for each viewer, so pages cannot be added to it.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    Page[] installPages(int numberOfRows, String[] names, PageContent[] contents, boolean replace) {
+        throw new UnsupportedOperationException("Pages cannot be added to a PaginatedGui.");
+    }
+
+    /**
+     * Disposes the page of every viewer as well.
+     */
+    @Override
+    public void dispose() {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(this::dispose);
+            return;
+        }
+        Page[] pages = this.viewsByPage.keySet().toArray(new Page[0]);
+        this.viewsByPage.clear();
+        this.viewsByPlayer.clear();
+        for (Page page : pages) {
+            page.dispose();
+        }
+        super.dispose();
+    }
+
+    /**
+     * Creates the page of the specified player, starting at the first page.
+     *
+     * @param player the player who is viewing the SwiftGui
+     * @return the view of the player
+     */
+    private View createView(Player player) {
+
+        Page page = new Page(this.numberOfRows, this.pagesName, this);
+        View view = new View(player.getUniqueId(), page);
+        this.viewsByPlayer.put(view.viewer, view);
+        this.viewsByPage.put(page, view);
+
+        /* the buttons go in the last row, under the items */
+        page.addBackButton();
+        page.addForwardButton();
+        if (this.pageDecorator != null) {
+            this.pageDecorator.accept(page);
+        }
+
+        return view;
+    }
+
+    /**
+     * Fetches the items of the page number the specified view is on and puts them in its page.
+     *
+     * @param view the view to be rendered
+     */
+    private void render(View view) {
+
+        /* the source may have shrunk since the view was last rendered */
+        view.pageIndex = Math.min(view.pageIndex, size() - 1);
+
+        int offset = view.pageIndex * this.itemsPerPage;
+        int length = Math.max(0, Math.min(this.itemsPerPage, this.source.count() - offset));
+        List<ItemStack> items = this.source.fetch(offset, length);
+
+        for (int i = 0; i < this.itemsPerPage; i++) {
+            view.page.setItem(i, i < items.size() ? items.get(i) : null);
+        }
+    }
+
+    /**
+     * The page of one viewer and the page number it is on.
+     */
+    private static final class View {
+
+        private final UUID viewer;
+
+        private final Page page;
+
+        /**
+         * The position of the page being shown, starting at zero.
+         */
+        private int pageIndex = 0;
+
+        private View(UUID viewer, Page page) {
+            this.viewer = viewer;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Gets the pages next to the pages players are viewing ready before they are opened.
+ * <p>
+ * When a player opens a page, the pages within the prefetch radius of its SwiftGui on both sides
+ * start loading their content if it is loaded when opened, and create their inventories,
+ * so moving forward or back does not wait for the page to be built.
+ * The pages around an opened page are prefetched on the following ticks within a time budget,
+ * so opening a page is not slowed down. A prefetched page that no player it was prefetched for is near anymore
+ * stops its load and releases its inventory; it is built again the next time it is opened or prefetched.
+ */
+final class Prefetcher implements Runnable {
+
+    /**
+     * The number of ticks between two checks for prefetched pages nobody is near.
+     */
+    private static final int DROP_PERIOD_IN_TICKS = 20;
+
+    /**
+     * The time in nanoseconds the prefetcher may spend every tick.
+     */
+    private static final long BUDGET = 1_000_000;
+
+    /**
+     * The pages that were opened and whose neighbours still have to be prefetched, with the player who opened them.
+     */
+    private final Queue<Request> requests = new ArrayDeque<>();
+
+    /**
+     * The pages that were prefetched and have not been opened since, with the players they were prefetched for.
+     */
+    private final Map<Page, List<Player>> prefetchedPages = new IdentityHashMap<>();
+
+    /**
+     * The number of ticks since the last check for prefetched pages nobody is near.
+     */
+    private int ticksSinceDropCheck = 0;
+
+    Prefetcher() {
+    }
+
+    /**
+     * Prefetches the pages around the specified page because the specified player opened it.
+     *
+     * @param player the player
+     * @param page   the page the player opened
+     */
+    void opened(Player player, Page page) {
+        this.prefetchedPages.remove(page);
+        if (page.getSwiftGui().getPrefetchRadius() > 0) {
+            this.requests.add(new Request(player, page));
+        }
+    }
+
+    /**
+     * Prefetches the pages around the opened pages until the budget of this tick is spent,
+     * and drops the prefetched pages nobody is near anymore every {@link #DROP_PERIOD_IN_TICKS} ticks.
+     */
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + BUDGET;
+
+        Request request;
+        while (System.nanoTime() < deadline && (request = this.requests.poll()) != null) {
+            prefetchAround(request.player, request.page);
+        }
+
+        if (++this.ticksSinceDropCheck >= DROP_PERIOD_IN_TICKS) {
+            this.ticksSinceDropCheck = 0;
+            dropUnused();
+        }
+    }
+
+    /**
+     * Prefetches the pages within the prefetch radius of the specified page for the specified player,
+     * nearest first.
+     */
+    private void prefetchAround(Player player, Page page) {
+        SwiftGui swiftGui = page.getSwiftGui();
+
+        /* the player may have moved on since the page was opened */
+        if (page.isDisposed() || swiftGui.getViewedPage(player) != page) {
+            return;
+        }
+
+        int pageNumber = page.getPageNumber();
+        for (int distance = 1; distance <= swiftGui.getPrefetchRadius(); distance++) {
+            prefetch(player, swiftGui.getPageFor(player, pageNumber + distance));
+            prefetch(player, swiftGui.getPageFor(player, pageNumber - distance));
+        }
+    }
+
+    private void prefetch(Player player, Page page) {
+        if (page == null || page.isDisposed() || page.hasViewers()) {
+            return;
+        }
+        List<Player> players = this.prefetchedPages.computeIfAbsent(page, key -> new ArrayList<>(1));
+        if (!players.contains(player)) {
+            players.add(player);
+        }
+        page.prefetch();
+    }
+
+    /**
+     * Drops the prefetched pages that none of the players they were prefetched for is near anymore.
+     */
+    private void dropUnused() {
+        Iterator<Map.Entry<Page, List<Player>>> iterator = this.prefetchedPages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Page, List<Player>> entry = iterator.next();
+            Page page = entry.getKey();
+            if (page.isDisposed() || page.hasViewers()) {
+                iterator.remove();
+                continue;
+            }
+
+            SwiftGui swiftGui = page.getSwiftGui();
+            int pageNumber = page.getPageNumber();
+            entry.getValue().removeIf(player -> !isNear(swiftGui, player, pageNumber));
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+                page.dropPrefetch();
+            }
+        }
+    }
+
+    /**
+     * Gets if the specified player is viewing a page of the specified SwiftGui within its prefetch radius
+     * of the specified page number.
+     */
+    private static boolean isNear(SwiftGui swiftGui, Player player, int pageNumber) {
+        Page viewedPage = swiftGui.getViewedPage(player);
+        return viewedPage != null && pageNumber > 0
+                && Math.abs(viewedPage.getPageNumber() - pageNumber) <= swiftGui.getPrefetchRadius();
+    }
+
+    /**
+     * A page that was opened by a player.
+     */
+    private static final class Request {
+
+        private final Player player;
+
+        private final Page page;
+
+        private Request(Player player, Page page) {
+            this.player = player;
+            this.page = page;
+        }
+    }
+}
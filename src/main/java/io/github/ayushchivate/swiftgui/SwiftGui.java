@@ -1,35 +1,58 @@
 package io.github.ayushchivate.swiftgui;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 // TODO Add page persistence when opening up a page. Make it an option.
 // TODO Make it so that the add page or delete button when alone is in the center but when both are added, put a space between them.
 // TODO Add a gui menu in game to make menus.
-// TODO Add saving features.
 // TODO Colored titles.
 // TODO Make sure all privacy modifiers are correct
-// TODO Make an option to insert the new page before of after the current page.
 // TODO Make sure all javadocs are correct.
 // TODO Parameter checks for all methods.
 
 /**
  * A container class that contains many pages.
+ * <p>
+ * A SwiftGui and its pages are changed and read on the server thread.
+ * Methods that change them without returning anything can also be called on other threads,
+ * in which case the change is made on the server thread on the next tick, in the order the changes were made.
+ * Methods that return something must be wrapped in {@link #call} on other threads,
+ * and other threads read the pages through the unchangeable {@link #getState()}.
  */
 public class SwiftGui {
 
     /**
-     * A map of pages and their corresponding page number in this SwiftGui.
+     * The pages in this SwiftGui in order. The page number of a page is its position in this list.
      */
-    private Map<Integer, Page> pages;
+    private final PageList pages = new PageList();
 
     /**
-     * An instance of the plugin used to register events.
+     * The reference used to report this SwiftGui if it is never disposed.
+     */
+    private final LeakDetector.TrackedGui trackedGui = LeakDetector.track(this);
+
+    /**
+     * Determines if this SwiftGui has been disposed.
+     */
+    private boolean isDisposed = false;
+
+    /**
+     * An instance of the plugin used to register the click dispatcher.
      */
     private static JavaPlugin plugin;
 
@@ -43,6 +66,53 @@ public class SwiftGui {
      */
     private boolean isDescending = false;
 
+    /**
+     * The pages of this SwiftGui that at least one player is viewing.
+     */
+    private final Set<Page> viewedPages = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The items shown in a page of this SwiftGui while its content is loading, or null.
+     */
+    private PageContent loadingPlaceholder;
+
+    /**
+     * The journal changes to this SwiftGui are recorded in, or null.
+     */
+    private GuiJournal journal;
+
+    /**
+     * The counters and click durations of this SwiftGui.
+     */
+    private final GuiMetrics metrics = new GuiMetrics(getClass().getSimpleName() + "@" +
+            Integer.toHexString(System.identityHashCode(this)));
+
+    /**
+     * The changes made to this SwiftGui on other threads that still have to be made on the server thread.
+     */
+    private final ChangeQueue changes = new ChangeQueue();
+
+    /**
+     * The latest state of this SwiftGui that was made on the server thread.
+     */
+    private volatile GuiState state = GuiState.EMPTY;
+
+    /**
+     * Determines if this SwiftGui changed since its state was made.
+     * The state is only made again when it is asked for, so changes nobody reads do not cost anything.
+     */
+    private volatile boolean stateOutdated = false;
+
+    /**
+     * Determines if a task that makes a new state for a reader on another thread is scheduled.
+     */
+    private final AtomicBoolean stateRequested = new AtomicBoolean();
+
+    /**
+     * The number of pages on each side of a viewed page that are got ready before they are opened.
+     */
+    private int prefetchRadius = 1;
+
     /**
      * Creates an empty SwiftGui with no pages.
      */
@@ -58,7 +128,7 @@ public class SwiftGui {
      * @param numberOfRows  the number of rows in each page that is added
      */
     public SwiftGui(int numberOfPages, int numberOfRows) {
-        this(numberOfRows, numberOfPages, "");
+        this(numberOfPages, numberOfRows, "");
     }
 
     /**
@@ -73,8 +143,6 @@ public class SwiftGui {
      */
     public SwiftGui(int numberOfPages, int numberOfRows, @NotNull String pagesName) {
 
-        this.pages = new HashMap<>();
-
         /* make sure the number of pages is zero or positive and the number of rows is positive */
         if (numberOfPages < 0) {
             throw new IllegalArgumentException("numberOfPages cannot be negative. Must be a positive integer.");
@@ -83,19 +151,51 @@ public class SwiftGui {
                     "Must be a positive multiple of 9.");
         }
 
-        /* create pages and add them to the map */
-        for (int i = 1; i <= numberOfPages; i++) {
-            this.pages.put(i, new Page(i, numberOfRows, pagesName, this));
+        /* create pages and add them to the list */
+        for (int i = 0; i < numberOfPages; i++) {
+            this.pages.add(new Page(numberOfRows, pagesName, this));
+        }
+        if (numberOfPages > 0) {
+            stateChanged();
         }
     }
 
     /**
      * Sets the instance of the plugin.
+     * This registers the listeners that route clicks to the buttons of every SwiftGui and keep track of viewers,
+     * starts releasing idle inventories and starts putting changed items into viewed inventories,
+     * so it must be called before any pages are opened. Pages can be created and filled before it is called.
      *
      * @param plugin the instance of the plugin
      */
     public static void setPluginInstance(JavaPlugin plugin) {
         SwiftGui.plugin = plugin;
+        GuiServices.start(plugin);
+    }
+
+    /**
+     * Sets how much time every tick may be spent putting changed items into the inventories of viewed pages.
+     * Changes that do not fit in a tick are carried over to the next tick,
+     * so large changes such as {@link #fillBorderAll} are spread over several ticks instead of causing lag.
+     * The default is 2 milliseconds.
+     *
+     * @param microseconds the time in microseconds
+     * @throws IllegalArgumentException if the time is not positive
+     */
+    public static void setUpdateBudget(long microseconds) {
+        GuiServices.UPDATE_SCHEDULER.setBudget(microseconds);
+    }
+
+    /**
+     * Sets how long a page's inventory can go without viewers before it is released.
+     * A page does not create its inventory until it is opened for the first time,
+     * and a released page keeps its items and creates a new inventory the next time it is opened.
+     * The default is one minute.
+     *
+     * @param milliseconds the idle time in milliseconds, or a negative value to never release inventories
+     */
+    public static void setIdleTimeout(long milliseconds) {
+        GuiServices.INVENTORY_EVICTOR.setIdleTimeout(milliseconds);
     }
 
     /**
@@ -107,10 +207,319 @@ public class SwiftGui {
         return plugin;
     }
 
-    Map<Integer, Page> getPages() {
+    /**
+     * Sets if the stack trace of where each SwiftGui is created should be recorded.
+     * The stack trace is included when a SwiftGui that was never disposed is reported.
+     * Recording is off by default because it makes creating a SwiftGui more expensive.
+     *
+     * @param record true to record where each SwiftGui is created
+     */
+    public static void setRecordCreationSites(boolean record) {
+        LeakDetector.setRecordCreationSites(record);
+    }
+
+    /**
+     * Logs a warning for every SwiftGui that was garbage collected without being disposed
+     * and for every SwiftGui that is still in memory but has not been disposed.
+     *
+     * @return the number of SwiftGuis that are still in memory and have not been disposed
+     */
+    public static int reportUndisposed() {
+        return LeakDetector.reportUndisposed();
+    }
+
+    /**
+     * Counts the SwiftGuis that are still in memory but have not been disposed, without logging a warning.
+     *
+     * @return the number of SwiftGuis that have not been disposed
+     */
+    public static int countUndisposed() {
+        return LeakDetector.countUndisposed();
+    }
+
+    /**
+     * Counts the SwiftGuis that were garbage collected without being disposed since the server started.
+     *
+     * @return the number of leaked SwiftGuis
+     */
+    public static int countLeaked() {
+        return LeakDetector.countLeaked();
+    }
+
+    /**
+     * Sets if every SwiftGui records how often its pages are opened, built and clicked
+     * and how long its clicks take. Metrics are recorded by default.
+     *
+     * @param enabled true to record metrics
+     * @see #getMetrics()
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+        GuiMetrics.setEnabled(enabled);
+    }
+
+    /**
+     * Gets the counters and click durations of this SwiftGui.
+     *
+     * @return the metrics
+     */
+    public GuiMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Makes the specified change to this SwiftGui on the server thread.
+     * On the server thread the change is made straight away, after any changes from other threads
+     * that are still waiting. On other threads it is made on the next tick.
+     * Changes are made in the order they were submitted.
+     *
+     * @param change the change
+     * @return a future that completes on the server thread once the change has been made
+     * @throws IllegalStateException if this is called on another thread and the plugin is not enabled
+     */
+    public CompletableFuture<Void> submit(Consumer<? super SwiftGui> change) {
+        return call(swiftGui -> {
+            change.accept(swiftGui);
+            return null;
+        });
+    }
+
+    /**
+     * Calls the specified function with this SwiftGui on the server thread, the same way {@link #submit} does.
+     * This is how methods that return something, such as {@link #addNewPage}, are used on other threads.
+     *
+     * @param function the function
+     * @param <T>      the type of the result
+     * @return a future that completes with the result on the server thread once the function has been called
+     * @throws IllegalStateException if this is called on another thread and the plugin is not enabled
+     */
+    public <T> CompletableFuture<T> call(Function<? super SwiftGui, ? extends T> function) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        this.changes.add(() -> {
+            try {
+                result.complete(function.apply(this));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Makes the specified change on the server thread, logging it if it fails.
+     * This is how the methods of this SwiftGui and its pages that are called on other threads are made.
+     *
+     * @param change the change
+     */
+    void runOnServerThread(Runnable change) {
+        this.changes.add(change);
+    }
+
+    /**
+     * Makes sure a method that returns something is called on the server thread.
+     *
+     * @throws IllegalStateException if this is not the server thread
+     */
+    static void checkServerThread() {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("This method returns something, so it must be called on the " +
+                    "server thread. Wrap it in SwiftGui.call to use it from other threads.");
+        }
+    }
+
+    /**
+     * Gets an unchangeable copy of the pages of this SwiftGui, which can be read on any thread.
+     * The state is made when it is asked for after this SwiftGui changed. On the server thread it is always
+     * up to date. On other threads it is the last state that was made, and if this SwiftGui changed since,
+     * a new state is made on the next tick, so a thread that reads the state every tick is at most a tick behind.
+     *
+     * @return the state
+     */
+    public GuiState getState() {
+        if (this.stateOutdated) {
+            if (Bukkit.isPrimaryThread()) {
+                publishState();
+            } else if (this.stateRequested.compareAndSet(false, true)) {
+                JavaPlugin plugin = SwiftGui.getPluginInstance();
+                if (plugin != null && plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        this.stateRequested.set(false);
+                        publishState();
+                    });
+                } else {
+                    this.stateRequested.set(false);
+                }
+            }
+        }
+        return this.state;
+    }
+
+    /**
+     * Called on the server thread when this SwiftGui or one of its pages changed,
+     * so a new state is made the next time it is asked for.
+     */
+    void stateChanged() {
+        if (!this.stateOutdated) {
+            this.stateOutdated = true;
+        }
+    }
+
+    /**
+     * Makes a new state of this SwiftGui if it changed since the last one was made.
+     * Pages that did not change reuse the copies of their items.
+     */
+    private void publishState() {
+        if (!this.stateOutdated) {
+            return;
+        }
+        this.stateOutdated = false;
+
+        PageState[] pageStates = new PageState[this.pages.size()];
+        int pageNumber = 0;
+        for (Page page : this.pages) {
+            pageStates[pageNumber] = page.getState(pageNumber + 1);
+            pageNumber++;
+        }
+        this.state = new GuiState(pageStates);
+    }
+
+    PageList getPages() {
         return pages;
     }
 
+    /**
+     * Gets the page with the specified page number.
+     *
+     * @param pageNumber the page number of the page, starting at 1
+     * @return the page, or null if this SwiftGui has no page with that page number
+     * @throws IllegalStateException if this is not the server thread; other threads use {@link #getState()}
+     */
+    public Page getPage(int pageNumber) {
+        checkServerThread();
+        if (pageNumber < 1 || pageNumber > this.pages.size()) {
+            return null;
+        }
+        return this.pages.get(pageNumber - 1);
+    }
+
+    /**
+     * Gets the page number of the specified page in this SwiftGui.
+     *
+     * @param page the page
+     * @return the page number of the page, or 0 if the page is not in this SwiftGui
+     */
+    int getPageNumber(Page page) {
+        return this.pages.indexOf(page) + 1;
+    }
+
+    /**
+     * Opens the page with the specified page number for the specified player.
+     * This is how the buttons of a page move to other pages.
+     * Nothing happens if there is no page with that page number.
+     *
+     * @param player     the player the page is opened for
+     * @param from       the page the player is moving away from
+     * @param pageNumber the page number of the page to be opened
+     */
+    void openPage(Player player, Page from, int pageNumber) {
+        Page page = getPageFor(player, pageNumber);
+        if (page != null) {
+            page.openInventory(player);
+        }
+    }
+
+    /**
+     * Gets the page the specified player sees for the specified page number.
+     *
+     * @param player     the player
+     * @param pageNumber the page number
+     * @return the page, or null if there is no page with that page number
+     */
+    Page getPageFor(Player player, int pageNumber) {
+        return getPage(pageNumber);
+    }
+
+    /**
+     * Gets the number of pages on each side of a page a player opens that are got ready in the background.
+     *
+     * @return the prefetch radius
+     */
+    public int getPrefetchRadius() {
+        return prefetchRadius;
+    }
+
+    /**
+     * Sets the number of pages on each side of a page a player opens that are got ready in the background,
+     * so moving to them with a {@link ForwardButton} or {@link BackButton} does not wait for them to be built.
+     * Those pages start loading their content if it was set with {@link Page#loadWhenOpened} and create their
+     * inventories. Once the player is no longer near them they stop loading and release their inventories.
+     * A {@link PaginatedGui} shows every viewer a single page that moves through its source,
+     * so it has no other pages to prefetch. The default is 1.
+     *
+     * @param prefetchRadius the number of pages on each side, or 0 to not prefetch
+     * @throws IllegalArgumentException if the radius is negative
+     */
+    public void setPrefetchRadius(int prefetchRadius) {
+        if (prefetchRadius < 0) {
+            throw new IllegalArgumentException("prefetchRadius cannot be negative.");
+        }
+        this.prefetchRadius = prefetchRadius;
+    }
+
+    /**
+     * Called when the specified page of this SwiftGui gets its first viewer or loses its last viewer.
+     *
+     * @param page the page whose viewers changed
+     */
+    void viewersChanged(Page page) {
+        if (page.hasViewers()) {
+            this.viewedPages.add(page);
+        } else {
+            this.viewedPages.remove(page);
+        }
+    }
+
+    /**
+     * Gets the pages of this SwiftGui that at least one player is viewing.
+     * Pages nobody is viewing can be skipped when refreshing or animating.
+     *
+     * @return an unmodifiable view of the viewed pages
+     * @throws IllegalStateException if this is not the server thread
+     */
+    public Set<Page> getViewedPages() {
+        checkServerThread();
+        return Collections.unmodifiableSet(this.viewedPages);
+    }
+
+    /**
+     * Gets the page of this SwiftGui the specified player is viewing.
+     *
+     * @param player the player
+     * @return the page the player is viewing, or null if the player is not viewing a page of this SwiftGui
+     * @throws IllegalStateException if this is not the server thread
+     */
+    public Page getViewedPage(Player player) {
+        checkServerThread();
+        Page page = GuiServices.VIEWER_REGISTRY.getViewedPage(player);
+        return page != null && page.getSwiftGui() == this ? page : null;
+    }
+
+    /**
+     * Checks that the specified button can be added to a page of this SwiftGui.
+     * Any button can be added to a SwiftGui.
+     *
+     * @param button the button that is about to be added
+     */
+    void checkButton(CustomButton button) {
+    }
+
+    /**
+     * Called after a page of this SwiftGui released its inventory because nobody viewed it for a while.
+     *
+     * @param page the page that released its inventory
+     */
+    void inventoryReleased(Page page) {
+    }
+
     /**
      * Returns the size of this SwiftGui.
      */
@@ -136,14 +545,159 @@ public class SwiftGui {
         return isDescending;
     }
 
+    /**
+     * Gets the items shown in a page of this SwiftGui while its content is loading.
+     *
+     * @return the placeholder, or null if there is none
+     */
+    public PageContent getLoadingPlaceholder() {
+        return loadingPlaceholder;
+    }
+
+    /**
+     * Sets the items shown in a page of this SwiftGui while its content is loaded with {@link Page#loadAsync}.
+     * It is used by every page that has no placeholder of its own and has the same number of rows.
+     *
+     * @param loadingPlaceholder the items shown while loading, or null to show nothing
+     */
+    public void setLoadingPlaceholder(PageContent loadingPlaceholder) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> setLoadingPlaceholder(loadingPlaceholder));
+            return;
+        }
+        this.loadingPlaceholder = loadingPlaceholder;
+    }
+
+    /**
+     * Gets the journal changes to this SwiftGui are recorded in.
+     *
+     * @return the journal, or null if changes are not recorded
+     */
+    GuiJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal changes to this SwiftGui are recorded in.
+     *
+     * @param journal the journal, or null to stop recording changes
+     */
+    void setJournal(GuiJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets if this SwiftGui has been disposed.
+     *
+     * @return true if this SwiftGui has been disposed
+     */
+    public boolean isDisposed() {
+        return isDisposed;
+    }
+
+    /**
+     * Disposes all pages in this SwiftGui and closes them for everyone viewing them.
+     * This SwiftGui should not be used after it has been disposed.
+     */
+    public void dispose() {
+
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(this::dispose);
+            return;
+        }
+
+        if (this.isDisposed) {
+            return;
+        }
+        this.isDisposed = true;
+
+        /* everything written so far is kept, but the pages being disposed are not removed from the journal */
+        if (this.journal != null) {
+            this.journal.close();
+        }
+
+        /* take the pages out of the list before disposing them so they do not remove themselves */
+        Page[] pagesToDispose = this.pages.toArray();
+        this.pages.clear();
+        stateChanged();
+        for (Page page : pagesToDispose) {
+            page.dispose();
+        }
+
+        this.trackedGui.disposed();
+    }
+
+    /**
+     * Deletes the specified page from this SwiftGui and disposes it.
+     * The pages after the deleted page are moved down by one page number.
+     *
+     * @param page the page to be deleted
+     */
+    public void deletePage(Page page) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> deletePage(page));
+            return;
+        }
+        page.dispose();
+    }
+
+    /**
+     * Takes the specified page out of this SwiftGui without disposing it.
+     * The pages after the removed page are moved down by one page number.
+     *
+     * @param page the page to be removed
+     */
+    void removePage(Page page) {
+        int pageNumber = this.pages.indexOf(page) + 1;
+        if (pageNumber > 0) {
+            this.pages.remove(pageNumber - 1);
+            if (this.journal != null) {
+                this.journal.pageRemoved(pageNumber);
+            }
+            stateChanged();
+        }
+    }
+
     /**
      * Opens the inventory for the specified player
      *
      * @param player the player who's inventory should be opened
+     * @throws IllegalStateException if this SwiftGui has no pages or the plugin instance has not been set
      */
     public void open(Player player) {
+
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player));
+            return;
+        }
+
+        /* make sure there is a page to open */
+        if (this.pages.size() == 0) {
+            throw new IllegalStateException("This SwiftGui has no pages to open.");
+        }
+
         /* open the first page */
-        Page page = this.pages.get(1);
+        Page page = this.pages.get(0);
+        page.openInventory(player);
+    }
+
+    /**
+     * Opens the page with the specified page number for the specified player
+     *
+     * @param player     the player who's inventory should be opened
+     * @param pageNumber the page number of the page to be opened
+     * @throws IllegalArgumentException if there is no page with that page number
+     * @throws IllegalStateException    if the plugin instance has not been set
+     */
+    public void open(Player player, int pageNumber) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> open(player, pageNumber));
+            return;
+        }
+        Page page = getPage(pageNumber);
+        if (page == null) {
+            throw new IllegalArgumentException("This SwiftGui has no page " + pageNumber + ".");
+        }
         page.openInventory(player);
     }
 
@@ -170,24 +724,46 @@ public class SwiftGui {
      */
     public Page addNewPage(int numberOfRows, @NotNull String pageName) {
 
+        checkServerThread();
+
         /* Make sure the number of rows is valid */
         if (numberOfRows <= 0) {
             throw new IllegalArgumentException("numberOfRows must be a positive multiple of 9");
         }
 
-        /* the page number of the new page is the current size of the map plus 1 */
-        int pageNumber = this.pages.size() + 1;
+        /* the new page goes after the last page */
+        return insertNewPage(this.pages.size() + 1, numberOfRows, pageName);
+    }
+
+    /**
+     * Inserts a new page into this SwiftGui with the specified page number.
+     * The page that had that page number and every page after it are moved up by one page number.
+     * The page will have the name that is specified.
+     *
+     * @param pageNumber   the page number of the new page, from 1 to one more than the number of pages
+     * @param numberOfRows the number of rows in the page
+     * @param pageName     the name of the page
+     *
+     * @return the page that was inserted
+     */
+    public Page insertNewPage(int pageNumber, int numberOfRows, @NotNull String pageName) {
+
+        checkServerThread();
 
-        /* create a page and put it in the map */
-        Page page = new Page(pageNumber, numberOfRows, pageName, this);
-        this.pages.put(pageNumber, page);
+        /* Make sure the page number and number of rows are valid */
+        if (pageNumber < 1 || pageNumber > this.pages.size() + 1) {
+            throw new IllegalArgumentException("pageNumber must be between 1 and " + (this.pages.size() + 1));
+        } else if (numberOfRows <= 0) {
+            throw new IllegalArgumentException("numberOfRows must be a positive multiple of 9");
+        }
 
-        /* Number in ascending or descending order if needed */
-        if (this.isAscending) {
-            page.renameAscending();
-        } else if (this.isDescending) {
-            page.renameDescending();
+        /* create a page and put it in the list */
+        Page page = new Page(numberOfRows, pageName, this);
+        this.pages.add(pageNumber - 1, page);
+        if (this.journal != null) {
+            this.journal.pageAdded(pageNumber, numberOfRows, pageName);
         }
+        stateChanged();
 
         return page;
     }
@@ -201,7 +777,7 @@ public class SwiftGui {
      * @return a list of the pages that were created
      */
     public Page[] addNewPages(int numberOfPages, int numberOfRows) {
-        return addNewPages(numberOfRows, numberOfPages, "");
+        return addNewPages(numberOfPages, numberOfRows, "");
     }
 
     /**
@@ -215,7 +791,7 @@ public class SwiftGui {
      */
     public Page[] addNewPages(int numberOfPages, int numberOfRows, @NotNull String pagesName) {
 
-        Page[] addedPages = new Page[numberOfPages];
+        checkServerThread();
 
         /* prevent the number of rows or pages from being negative */
         if (numberOfPages < 0) {
@@ -224,23 +800,90 @@ public class SwiftGui {
             throw new IllegalArgumentException("numberOfRows must be a positive multiple of 9");
         }
 
-        /* create pages and add them to the map */
+        Page[] addedPages = new Page[numberOfPages];
+
+        /* create pages and add them to the end of the list */
         for (int i = 0; i < numberOfPages; i++) {
+            Page page = new Page(numberOfRows, pagesName, this);
+            this.pages.add(page);
+            if (this.journal != null) {
+                this.journal.pageAdded(this.pages.size(), numberOfRows, pagesName);
+            }
+            addedPages[i] = page;
+        }
+        if (numberOfPages > 0) {
+            stateChanged();
+        }
 
-            /* the page number of the new page is the current size of the map plus 1 */
-            int pageNumber = this.pages.size() + 1;
+        return addedPages;
+    }
 
-            /* create a page and put it in the map and array */
-            Page page = new Page(pageNumber, numberOfRows, pagesName, this);
-            this.pages.put(pageNumber, page);
-            addedPages[i] = page;
+    /**
+     * Creates a builder that builds the content of the specified number of pages in parallel
+     * and puts them in this SwiftGui all at once on the server thread.
+     *
+     * @param numberOfPages the number of pages to be built
+     * @param numberOfRows  the number of rows in the pages
+     * @return the builder
+     * @throws IllegalArgumentException if the number of pages is negative or the number of rows is not positive
+     */
+    public BulkPageBuilder bulkBuilder(int numberOfPages, int numberOfRows) {
+        return new BulkPageBuilder(this, numberOfPages, numberOfRows);
+    }
+
+    /**
+     * Puts pages that were built by a {@link BulkPageBuilder} in this SwiftGui in one go.
+     * No inventories are created; the pages create them when they are opened.
+     *
+     * @param numberOfRows the number of rows of the pages
+     * @param names        the names of the pages
+     * @param contents     the content of the pages
+     * @param replace      true to put the pages in instead of the pages this SwiftGui has
+     * @return the pages that were added
+     * @throws IllegalStateException if this SwiftGui has been disposed
+     */
+    Page[] installPages(int numberOfRows, String[] names, PageContent[] contents, boolean replace) {
+
+        if (this.isDisposed) {
+            throw new IllegalStateException("This SwiftGui has been disposed.");
+        }
+
+        /* remember who is viewing which page number so they can be moved to the new pages */
+        List<Player> viewers = new ArrayList<>();
+        List<Integer> viewedPageNumbers = new ArrayList<>();
+        Page[] oldPages = new Page[0];
+        if (replace) {
+            for (Page page : this.viewedPages) {
+                int pageNumber = getPageNumber(page);
+                for (Player viewer : page.getViewers()) {
+                    viewers.add(viewer);
+                    viewedPageNumbers.add(pageNumber);
+                }
+            }
+            oldPages = this.pages.toArray();
+            for (int i = oldPages.length - 1; i >= 0; i--) {
+                removePage(oldPages[i]);
+            }
+        }
 
-            /* Number in ascending or descending order if needed */
-            if (this.isAscending) {
-                page.renameAscending();
-            } else if (this.isDescending) {
-                page.renameDescending();
+        Page[] addedPages = new Page[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            Page page = new Page(numberOfRows, names[i], this);
+            this.pages.add(page);
+            if (this.journal != null) {
+                this.journal.pageAdded(this.pages.size(), numberOfRows, names[i]);
             }
+            contents[i].applyTo(page);
+            addedPages[i] = page;
+        }
+        stateChanged();
+
+        /* the old pages are no longer in the list, so disposing them only closes them and their buttons */
+        for (Page oldPage : oldPages) {
+            oldPage.dispose();
+        }
+        for (int i = 0; i < viewers.size() && this.pages.size() > 0; i++) {
+            openPage(viewers.get(i), null, Math.min(viewedPageNumbers.get(i), this.pages.size()));
         }
 
         return addedPages;
@@ -250,24 +893,23 @@ public class SwiftGui {
      * Returns all the pages in this SwiftGui
      *
      * @return a list of all the pages in this SwiftGui
+     * @throws IllegalStateException if this is not the server thread; other threads use {@link #getState()}
      */
     public Page[] getAllPages() {
-
-        Page[] allPages = new Page[this.pages.size()];
-
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            allPages[entry.getKey()] = entry.getValue();
-        }
-
-        return allPages;
+        checkServerThread();
+        return this.pages.toArray();
     }
 
     /**
      * Adds a back button to all the pages in the default index which is the first slot of the last row.
      */
     public void addBackButtonAll() {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addBackButton();
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addBackButtonAll());
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addBackButton();
         }
     }
 
@@ -277,8 +919,12 @@ public class SwiftGui {
      * @param index the index in the page where the button should appear
      */
     public void addBackButtonAll(int index) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addBackButton(index);
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addBackButtonAll(index));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addBackButton(index);
         }
     }
 
@@ -286,8 +932,12 @@ public class SwiftGui {
      * Adds a delete page button to all the pages in the default index which is the fourth slot of the last row.
      */
     public void addDeletePageButtonAll() {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addDeletePageButton();
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addDeletePageButtonAll());
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addDeletePageButton();
         }
     }
 
@@ -297,8 +947,12 @@ public class SwiftGui {
      * @param index the index in the page where the button should appear
      */
     public void addDeletePageButtonAll(int index) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addDeletePageButton(index);
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addDeletePageButtonAll(index));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addDeletePageButton(index);
         }
     }
 
@@ -306,8 +960,12 @@ public class SwiftGui {
      * Adds a new page button to all the pages in the default index which is the sixth slot of the last row.
      */
     public void addNewPageButtonAll() {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addNewPageButton();
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addNewPageButtonAll());
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addNewPageButton();
         }
     }
 
@@ -317,8 +975,12 @@ public class SwiftGui {
      * @param index the index in the page where the button should appear
      */
     public void addNewPageButtonAll(int index) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addNewPageButton(index);
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addNewPageButtonAll(index));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addNewPageButton(index);
         }
     }
 
@@ -326,8 +988,12 @@ public class SwiftGui {
      * Adds a forward button to all the pages in the default index which is the last slot of the last row.
      */
     public void addForwardButtonAll() {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addForwardButton();
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addForwardButtonAll());
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addForwardButton();
         }
     }
 
@@ -337,20 +1003,55 @@ public class SwiftGui {
      * @param index the index in the page where the button should appear
      */
     public void addForwardButtonAll(int index) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addForwardButton(index);
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addForwardButtonAll(index));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addForwardButton(index);
+        }
+    }
+
+    /**
+     * Adds a custom button to all the pages.
+     * A button can only be on one page, so the supplier is called once for every page
+     * and must return a new button each time. The button's index is the slot it appears in.
+     *
+     * @param buttonSupplier makes the button for a page
+     * @throws IllegalStateException if the supplier returns a button that is already on a page
+     */
+    public void addCustomButtonAll(@NotNull Supplier<? extends CustomButton> buttonSupplier) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addCustomButtonAll(buttonSupplier));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.addCustomButton(buttonSupplier.get());
         }
     }
 
     /**
-     * Adds a customButton to all the pages at the specified index.
+     * Adds a custom button to all the pages.
+     * This only worked for a SwiftGui with a single page, since a button can only be on one page,
+     * so it now throws if there is more than one page.
      *
-     * @param customButton the type of button to be added
-     * @param index        the index in the page where the button should appear
+     * @param customButton the button to be added
+     * @param index        ignored; the button's own index is the slot it appears in
+     * @throws IllegalStateException if this SwiftGui has more than one page
+     * @deprecated use {@link #addCustomButtonAll(Supplier)}, which makes a button for every page
      */
+    @Deprecated
     public void addCustomButtonAll(CustomButton customButton, int index) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().addCustomButton(customButton);
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> addCustomButtonAll(customButton, index));
+            return;
+        }
+        if (this.pages.size() > 1) {
+            throw new IllegalStateException("A button can only be on one page. " +
+                    "Use addCustomButtonAll with a supplier that makes a button for every page.");
+        }
+        for (Page page : this.pages) {
+            page.addCustomButton(customButton);
         }
     }
 
@@ -358,24 +1059,38 @@ public class SwiftGui {
      * Numbers all existing pages in ascending order.
      * Any pages added after this method is ran will also be added in ascending order.
      * A dash and number will be added after the page name.
+     * The titles are worked out when a page is opened, so numbering does not rebuild any inventories.
      */
     public void numberAscendingOrderAll() {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(this::numberAscendingOrderAll);
+            return;
+        }
         this.isAscending = true;
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().renameAscending();
+        this.isDescending = false;
+        if (this.journal != null) {
+            this.journal.numberingChanged(this);
         }
+        stateChanged();
     }
 
     /**
      * Numbers all existing pages in descending order.
      * Any pages added after this method is ran will also be added in descending order.
      * A dash and number will be added after the page name.
+     * The titles are worked out when a page is opened, so numbering does not rebuild any inventories.
      */
     public void numberDescendingOrderAll() {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(this::numberDescendingOrderAll);
+            return;
+        }
         this.isDescending = true;
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().renameDescending();
+        this.isAscending = false;
+        if (this.journal != null) {
+            this.journal.numberingChanged(this);
         }
+        stateChanged();
     }
 
     /**
@@ -387,8 +1102,24 @@ public class SwiftGui {
      * @param fillMaterial  the material that will be used to fill the border
      */
     public void fillBorderAll(int[][] borderPattern, Material fillMaterial) {
-        for (Map.Entry<Integer, Page> entry : this.pages.entrySet()) {
-            entry.getValue().fillBorder(borderPattern, fillMaterial);
+
+        /* check the pattern once instead of once for every page */
+        fillBorderAll(Layout.of(borderPattern, fillMaterial));
+    }
+
+    /**
+     * Fills all pages according to the specified layout.
+     *
+     * @param layout the layout, which must have the same number of rows as every page
+     * @throws IllegalArgumentException if a page does not have the same number of rows as the layout
+     */
+    public void fillBorderAll(Layout layout) {
+        if (!Bukkit.isPrimaryThread()) {
+            runOnServerThread(() -> fillBorderAll(layout));
+            return;
+        }
+        for (Page page : this.pages) {
+            page.fillBorder(layout);
         }
     }
 }
@@ -0,0 +1,90 @@
+package io.github.ayushchivate.swiftgui;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Puts the pending item changes of viewed pages into their inventories within a time budget every tick.
+ * <p>
+ * Every change to a slot of an inventory that is being viewed is sent to its viewers, so changes to viewed pages
+ * are not made straight away. Each page marks its changed slots in a bitset and keeps only the latest item,
+ * so repeated changes to the same slot are only sent once, and the pages are worked through in the order
+ * they were changed.
+ * Whatever does not fit in the budget of a tick is carried over to the next tick.
+ */
+final class UpdateScheduler implements Runnable {
+
+    /**
+     * The time in nanoseconds the scheduler may spend every tick.
+     */
+    private long budget = 2_000_000;
+
+    /**
+     * The pages that have pending changes, in the order they were changed.
+     */
+    private final Set<Page> pendingPages = new LinkedHashSet<>();
+
+    UpdateScheduler() {
+    }
+
+    /**
+     * Sets the time the scheduler may spend every tick.
+     *
+     * @param microseconds the time in microseconds
+     * @throws IllegalArgumentException if the time is not positive
+     */
+    void setBudget(long microseconds) {
+
+        /* without any time changes would never reach the inventories */
+        if (microseconds <= 0) {
+            throw new IllegalArgumentException("The update budget must be positive.");
+        }
+        this.budget = microseconds * 1_000;
+    }
+
+    /**
+     * Makes sure the pending changes of the specified page are put into its inventory.
+     *
+     * @param page the page that has pending changes
+     */
+    void schedule(Page page) {
+        if (GuiServices.isRunning()) {
+            this.pendingPages.add(page);
+        } else {
+            page.flushUpdates(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Forgets the specified page because it no longer has pending changes.
+     *
+     * @param page the page
+     */
+    void cancel(Page page) {
+        this.pendingPages.remove(page);
+    }
+
+    /**
+     * Puts pending changes into inventories until they are all made or the budget of this tick runs out.
+     */
+    @Override
+    public void run() {
+
+        if (this.pendingPages.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + this.budget;
+        Iterator<Page> iterator = this.pendingPages.iterator();
+        while (iterator.hasNext()) {
+            Page page = iterator.next();
+            if (page.flushUpdates(deadline)) {
+                iterator.remove();
+            }
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.ayushchivate.swiftgui;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps track of which page every player is viewing.
+ * Every page knows its own viewers, so both "who is viewing this page" and "which page is this player viewing"
+ * are answered in constant time.
+ */
+final class ViewerRegistry implements Listener {
+
+    /**
+     * The page every player who has a page open is viewing.
+     */
+    private final Map<UUID, Page> pagesByViewer = new HashMap<>();
+
+    ViewerRegistry() {
+    }
+
+    /**
+     * Gets the page the specified player is viewing.
+     *
+     * @param player the player
+     * @return the page the player is viewing, or null if the player is not viewing a page
+     */
+    Page getViewedPage(Player player) {
+        return this.pagesByViewer.get(player.getUniqueId());
+    }
+
+    /**
+     * Gets the page that owns the specified inventory.
+     *
+     * @param inventory the inventory
+     * @return the page that owns the inventory, or null if the inventory was not created by a page
+     */
+    private static Page getPage(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder();
+        return holder instanceof PageHolder ? ((PageHolder) holder).getPage() : null;
+    }
+
+    /**
+     * Records that a player started viewing a page.
+     *
+     * @param event the event that is fired when an inventory is opened
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    private void onInventoryOpen(InventoryOpenEvent event) {
+
+        HumanEntity viewer = event.getPlayer();
+        if (!(viewer instanceof Player)) {
+            return;
+        }
+        Page page = getPage(event.getInventory());
+        if (page == null) {
+            return;
+        }
+
+        if (GuiMetrics.isEnabled()) {
+            page.getSwiftGui().getMetrics().opened();
+        }
+
+        Player player = (Player) viewer;
+        Page previousPage = this.pagesByViewer.put(player.getUniqueId(), page);
+        if (previousPage != null && previousPage != page) {
+            previousPage.removeViewer(player);
+        }
+        page.addViewer(player);
+        GuiServices.PREFETCHER.opened(player, page);
+    }
+
+    /**
+     * Records that a player stopped viewing a page.
+     *
+     * @param event the event that is fired when an inventory is closed
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onInventoryClose(InventoryCloseEvent event) {
+
+        HumanEntity viewer = event.getPlayer();
+        if (!(viewer instanceof Player)) {
+            return;
+        }
+        Page page = getPage(event.getInventory());
+        if (page == null) {
+            return;
+        }
+
+        Player player = (Player) viewer;
+        this.pagesByViewer.remove(player.getUniqueId(), page);
+        page.removeViewer(player);
+    }
+
+    /**
+     * Forgets the page a player was viewing when they leave.
+     *
+     * @param event the event that is fired when a player leaves
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        Page page = this.pagesByViewer.remove(player.getUniqueId());
+        if (page != null) {
+            page.removeViewer(player);
+        }
+    }
+}
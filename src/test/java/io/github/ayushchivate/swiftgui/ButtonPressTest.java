@@ -0,0 +1,192 @@
+package io.github.ayushchivate.swiftgui;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a button can only be pressed while its item is in its slot, and that players cannot move it away.
+ * MockBukkit does not move items when a click is called, so the tests make the move themselves
+ * whenever the click was not cancelled, like the server would.
+ */
+class ButtonPressTest {
+
+    /**
+     * The index of the button in the top inventory.
+     */
+    private static final int BUTTON_INDEX = 0;
+
+    /**
+     * The raw slot of the first hotbar slot, right after the 54 slots of the page.
+     */
+    private static final int HOTBAR_RAW_SLOT = 81;
+
+    private static ServerMock server;
+
+    private PlayerMock player;
+
+    private SwiftGui swiftGui;
+
+    private Page page;
+
+    private CountingButton button;
+
+    @BeforeAll
+    static void startServer() {
+        server = MockBukkit.mock();
+        SwiftGui.setPluginInstance(MockBukkit.createMockPlugin());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        MockBukkit.unmock();
+    }
+
+    @BeforeEach
+    void openGui() {
+        this.player = server.addPlayer();
+        this.swiftGui = new SwiftGui();
+        this.page = this.swiftGui.addNewPage(6, "Buttons");
+        this.button = new CountingButton(BUTTON_INDEX, this.swiftGui);
+        this.page.addCustomButton(this.button);
+        this.swiftGui.open(this.player);
+    }
+
+    @AfterEach
+    void disposeGui() {
+        this.swiftGui.dispose();
+    }
+
+    @Test
+    void clickOnButtonIsCancelled() {
+        InventoryClickEvent click = click(BUTTON_INDEX, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        assertTrue(click.isCancelled());
+        assertEquals(1, this.button.clicks);
+    }
+
+    @Test
+    void pickingUpTheItemOfAButtonLeavesItInItsSlot() {
+        InventoryClickEvent pickUp = click(BUTTON_INDEX, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        if (!pickUp.isCancelled()) {
+            getTopInventory().setItem(BUTTON_INDEX, null);
+        }
+
+        click(BUTTON_INDEX, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        assertEquals(Material.STONE, getTopInventory().getItem(BUTTON_INDEX).getType());
+        assertEquals(2, this.button.clicks);
+    }
+
+    @Test
+    void swappingTheItemOfAButtonWithTheHotbarIsCancelled() {
+        this.player.getInventory().setItem(0, new ItemStack(Material.DIRT));
+        InventoryClickEvent swap = new InventoryClickEvent(getView(), InventoryType.SlotType.CONTAINER, BUTTON_INDEX,
+                ClickType.NUMBER_KEY, InventoryAction.HOTBAR_SWAP, 0);
+        server.getPluginManager().callEvent(swap);
+        if (!swap.isCancelled()) {
+            getTopInventory().setItem(BUTTON_INDEX, new ItemStack(Material.DIRT));
+        }
+
+        assertTrue(swap.isCancelled());
+        assertEquals(Material.STONE, getTopInventory().getItem(BUTTON_INDEX).getType());
+        click(BUTTON_INDEX, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        assertEquals(2, this.button.clicks);
+    }
+
+    @Test
+    void shiftClickingAnItemThatStacksOntoAButtonIsCancelled() {
+        this.player.getInventory().setItem(0, getTopInventory().getItem(BUTTON_INDEX).clone());
+        InventoryClickEvent shiftClick = click(HOTBAR_RAW_SLOT, ClickType.SHIFT_LEFT,
+                InventoryAction.MOVE_TO_OTHER_INVENTORY);
+        assertTrue(shiftClick.isCancelled());
+    }
+
+    @Test
+    void shiftClickingAnotherItemIsNotCancelled() {
+        this.player.getInventory().setItem(0, new ItemStack(Material.DIRT));
+        InventoryClickEvent shiftClick = click(HOTBAR_RAW_SLOT, ClickType.SHIFT_LEFT,
+                InventoryAction.MOVE_TO_OTHER_INVENTORY);
+        assertFalse(shiftClick.isCancelled());
+    }
+
+    @Test
+    void draggingOverAButtonIsCancelled() {
+        assertTrue(drag(BUTTON_INDEX).isCancelled());
+        assertFalse(drag(BUTTON_INDEX + 1).isCancelled());
+    }
+
+    @Test
+    void disposingAButtonOnAnotherThreadStopsItStraightAway() throws InterruptedException {
+        Thread thread = new Thread(this.button::dispose);
+        thread.start();
+        thread.join();
+
+        assertTrue(this.button.isDisposed());
+        click(BUTTON_INDEX, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        assertEquals(0, this.button.clicks);
+
+        /* the button is taken off its page on the server thread */
+        server.getScheduler().performOneTick();
+        assertNull(this.page.getButton(BUTTON_INDEX));
+    }
+
+    private InventoryView getView() {
+        return this.player.getOpenInventory();
+    }
+
+    private Inventory getTopInventory() {
+        return getView().getTopInventory();
+    }
+
+    private InventoryClickEvent click(int rawSlot, ClickType clickType, InventoryAction action) {
+        InventoryClickEvent click = new InventoryClickEvent(getView(), InventoryType.SlotType.CONTAINER, rawSlot,
+                clickType, action);
+        server.getPluginManager().callEvent(click);
+        return click;
+    }
+
+    private InventoryDragEvent drag(int rawSlot) {
+        ItemStack item = new ItemStack(Material.STONE);
+        InventoryDragEvent drag = new InventoryDragEvent(getView(), null, item, false,
+                Collections.singletonMap(rawSlot, item));
+        server.getPluginManager().callEvent(drag);
+        return drag;
+    }
+
+    /**
+     * A button that counts how often it was pressed.
+     */
+    private static final class CountingButton extends CustomButton {
+
+        private int clicks = 0;
+
+        CountingButton(int index, SwiftGui swiftGui) {
+            super(index, Material.STONE, swiftGui);
+        }
+
+        @Override
+        public void onClick(InventoryClickEvent event) {
+            this.clicks++;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.ayushchivate.swiftgui;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryView;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the library's part of a click, from the event to the call of {@code onClick}, allocates nothing
+ * once the JIT has warmed up.
+ * <p>
+ * Bukkit and MockBukkit allocate while calling listeners, so every click is measured against a click
+ * in an inventory that was not created by a page, which the library drops as soon as it sees the holder.
+ * The difference is what the library allocates.
+ */
+class ClickAllocationTest {
+
+    /**
+     * The number of clicks made before measuring, so the JIT has compiled the click path.
+     */
+    private static final int WARMUP_CLICKS = 200_000;
+
+    /**
+     * The number of clicks every measurement takes.
+     */
+    private static final int CLICKS = 1_000_000;
+
+    /**
+     * The bytes a click may allocate on average, which allows a rounding error,
+     * since a click can not allocate a fraction of a byte.
+     */
+    private static final double MAX_BYTES_PER_CLICK = 0.5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static ServerMock server;
+
+    private SwiftGui swiftGui;
+
+    private InventoryClickEvent otherClick;
+
+    private InventoryClickEvent buttonClick;
+
+    private InventoryClickEvent emptyClick;
+
+    @BeforeAll
+    static void startServer() {
+        server = MockBukkit.mock();
+        SwiftGui.setPluginInstance(MockBukkit.createMockPlugin());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        MockBukkit.unmock();
+    }
+
+    @BeforeEach
+    void openGui() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled());
+        PlayerMock player = server.addPlayer();
+
+        /* a click the library drops right away, which is the cost of Bukkit calling the listeners */
+        InventoryView otherView = player.openInventory(Bukkit.createInventory(null, 54));
+        this.otherClick = click(otherView, 0);
+
+        this.swiftGui = new SwiftGui();
+        Page page = this.swiftGui.addNewPage(6, "Allocations");
+        page.addCustomButton(new NoOpButton(0, this.swiftGui));
+        this.swiftGui.open(player);
+        InventoryView pageView = player.getOpenInventory();
+        this.buttonClick = click(pageView, 0);
+        this.emptyClick = click(pageView, 1);
+    }
+
+    @AfterEach
+    void disposeGui() {
+        if (this.swiftGui != null) {
+            this.swiftGui.dispose();
+        }
+        SwiftGui.setMetricsEnabled(true);
+    }
+
+    @Test
+    void buttonClickWithMetricsAllocatesNothing() {
+        SwiftGui.setMetricsEnabled(true);
+        assertAllocatesNothing(this.buttonClick);
+    }
+
+    @Test
+    void buttonClickWithoutMetricsAllocatesNothing() {
+        SwiftGui.setMetricsEnabled(false);
+        assertAllocatesNothing(this.buttonClick);
+    }
+
+    @Test
+    void clickOnAnEmptySlotAllocatesNothing() {
+        SwiftGui.setMetricsEnabled(true);
+        assertAllocatesNothing(this.emptyClick);
+    }
+
+    private void assertAllocatesNothing(InventoryClickEvent click) {
+        double bytes = bytesPerClick(click) - bytesPerClick(this.otherClick);
+        assertTrue(bytes <= MAX_BYTES_PER_CLICK, "A click allocated " + bytes + " bytes on average.");
+    }
+
+    private static InventoryClickEvent click(InventoryView view, int slot) {
+        return new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, slot, ClickType.LEFT,
+                InventoryAction.PICKUP_ALL);
+    }
+
+    /**
+     * Gets the average number of bytes the current thread allocates for one call of the specified click,
+     * after warming up.
+     */
+    private static double bytesPerClick(InventoryClickEvent click) {
+        for (int i = 0; i < WARMUP_CLICKS; i++) {
+            server.getPluginManager().callEvent(click);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CLICKS; i++) {
+            server.getPluginManager().callEvent(click);
+        }
+        long after = THREADS.getThreadAllocatedBytes(threadId);
+        return (after - before) / (double) CLICKS;
+    }
+
+    /**
+     * A button whose {@code onClick} does nothing, so only the library's part of the click is measured.
+     */
+    private static final class NoOpButton extends CustomButton {
+
+        NoOpButton(int index, SwiftGui swiftGui) {
+            super(index, Material.STONE, swiftGui);
+        }
+
+        @Override
+        public void onClick(InventoryClickEvent event) {
+        }
+    }
+}